@@ -17,6 +17,8 @@ plugins {
     id("io.gitlab.arturbosch.detekt") version "1.17.1"
     // ktlint linter - read more: https://github.com/JLLeitschuh/ktlint-gradle
     id("org.jlleitschuh.gradle.ktlint") version "10.0.0"
+    // JMH benchmarks - read more: https://github.com/melix/jmh-gradle-plugin
+    id("me.champeau.jmh") version "0.6.5"
 }
 
 group = properties("pluginGroup")
@@ -63,6 +65,19 @@ detekt {
     }
 }
 
+// Configure JMH plugin, benchmarks live in src/jmh and run with `./gradlew jmh`.
+// Read more: https://github.com/melix/jmh-gradle-plugin
+jmh {
+    jmhVersion.set("1.32")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    // Restrict the run with -PjmhIncludes=<regexp>, for instance -PjmhIncludes=SortBenchmark
+    findProperty("jmhIncludes")?.let { includes.add(it.toString()) }
+}
+
 tasks {
     // Set the compatibility versions to 1.8
     withType<JavaCompile> {
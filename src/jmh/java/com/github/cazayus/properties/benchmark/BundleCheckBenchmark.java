@@ -0,0 +1,56 @@
+package com.github.cazayus.properties.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.cazayus.properties.engine.CeaRules;
+import com.github.cazayus.properties.engine.PropertiesText;
+
+/**
+ * Checks every locale of a bundle but the edited one, what the inspection does on each highlighting of a bundle file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BundleCheckBenchmark {
+	@Param({ "1000", "20000" })
+	private int keys;
+
+	@Param({ "1", "10", "40" })
+	private int locales;
+
+	@Param({ "SORTED", "NEARLY_SORTED" })
+	private SyntheticBundle.Shape shape;
+
+	private String[] texts;
+
+	@Setup
+	public void setUp() {
+		List<String> bundleKeys = SyntheticBundle.createKeys(keys, 42L);
+		texts = new String[locales];
+		for (int i = 0; i < locales; i++) {
+			// Only the last locale is damaged so every other file is fully scanned
+			SyntheticBundle.Shape localeShape = i == locales - 1 ? shape : SyntheticBundle.Shape.SORTED;
+			texts[i] = SyntheticBundle.createText(bundleKeys, localeShape, "locale" + i, i);
+		}
+	}
+
+	@Benchmark
+	public boolean isResourceBundleSortedExceptOneFile() {
+		for (int i = 1; i < texts.length; i++) {
+			if (!CeaRules.isCeaSorted(PropertiesText.parse(texts[i]))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,69 @@
+package com.github.cazayus.properties.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.cazayus.properties.engine.BundleKeyRanks;
+import com.github.cazayus.properties.engine.KeyOrdering;
+import com.github.cazayus.properties.engine.PropertiesText;
+
+/**
+ * Sorts every locale of a shuffled bundle, each file on its own like the batch command line or with the key ranks of the bundle like the sort task
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BundleSortBenchmark {
+	@Param({ "1000", "50000" })
+	private int keys;
+
+	@Param({ "10", "40" })
+	private int locales;
+
+	@Param({ "PLAIN", "COLLATOR" })
+	private KeyOrdering ordering;
+
+	private String[] texts;
+
+	@Setup
+	public void setUp() {
+		List<String> bundleKeys = SyntheticBundle.createKeys(keys, 42L);
+		texts = new String[locales];
+		for (int i = 0; i < locales; i++) {
+			texts[i] = SyntheticBundle.createText(bundleKeys, SyntheticBundle.Shape.SHUFFLED, "locale" + i, i);
+		}
+	}
+
+	@Benchmark
+	public int[][] sortEachLocale() {
+		int[][] sortedIndexes = new int[texts.length][];
+		for (int i = 0; i < texts.length; i++) {
+			sortedIndexes[i] = PropertiesText.parse(texts[i], ordering).sortedIndexes();
+		}
+		return sortedIndexes;
+	}
+
+	@Benchmark
+	public int[][] sortWithKeyRanks() {
+		List<PropertiesText> propertiesTexts = new ArrayList<>(texts.length);
+		for (String text : texts) {
+			propertiesTexts.add(PropertiesText.parse(text, ordering));
+		}
+		BundleKeyRanks keyRanks = BundleKeyRanks.build(propertiesTexts);
+		int[][] sortedIndexes = new int[texts.length][];
+		for (int i = 0; i < texts.length; i++) {
+			sortedIndexes[i] = keyRanks.sortedIndexes(i);
+		}
+		return sortedIndexes;
+	}
+}
@@ -0,0 +1,48 @@
+package com.github.cazayus.properties.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.cazayus.properties.engine.CeaRules;
+import com.github.cazayus.properties.engine.PropertiesText;
+
+/**
+ * Checks one file with the rules shared by the inspection and the batch command line
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CeaCheckBenchmark {
+	@Param({ "1000", "20000", "200000" })
+	private int keys;
+
+	@Param({ "SORTED", "NEARLY_SORTED", "SHUFFLED" })
+	private SyntheticBundle.Shape shape;
+
+	private String text;
+	private PropertiesText parsedText;
+
+	@Setup
+	public void setUp() {
+		text = SyntheticBundle.createText(SyntheticBundle.createKeys(keys, 42L), shape, "fr", 7L);
+		parsedText = PropertiesText.parse(text);
+	}
+
+	@Benchmark
+	public boolean parseAndCheck() {
+		return CeaRules.isCeaSorted(PropertiesText.parse(text));
+	}
+
+	@Benchmark
+	public boolean check() {
+		return CeaRules.isCeaSorted(parsedText);
+	}
+}
@@ -0,0 +1,52 @@
+package com.github.cazayus.properties.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.cazayus.properties.engine.CeaRules;
+import com.github.cazayus.properties.engine.KeyOrdering;
+import com.github.cazayus.properties.engine.PropertiesText;
+import com.github.cazayus.properties.engine.SortEdits;
+
+/**
+ * Computes the sorted text of a file, the full rewrite of the batch command line and the minimal edits of the quick fix, in every key ordering
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SortBenchmark {
+	@Param({ "1000", "20000", "200000" })
+	private int keys;
+
+	@Param({ "NEARLY_SORTED", "SHUFFLED" })
+	private SyntheticBundle.Shape shape;
+
+	@Param({ "PLAIN", "NATURAL", "COLLATOR" })
+	private KeyOrdering ordering;
+
+	private String text;
+
+	@Setup
+	public void setUp() {
+		text = SyntheticBundle.createText(SyntheticBundle.createKeys(keys, 42L), shape, "fr", 7L);
+	}
+
+	@Benchmark
+	public String sortedText() {
+		return CeaRules.sort(PropertiesText.parse(text, ordering), CeaRules.DEFAULT_DELIMITER);
+	}
+
+	@Benchmark
+	public List<SortEdits.Replacement> minimalEdits() {
+		return SortEdits.compute(PropertiesText.parse(text, ordering));
+	}
+}
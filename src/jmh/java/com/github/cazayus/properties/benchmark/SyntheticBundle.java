@@ -0,0 +1,92 @@
+package com.github.cazayus.properties.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.github.cazayus.properties.engine.CeaKey;
+
+/**
+ * Generates resource bundles with the key shapes found in real projects <br>
+ * Most keys are dotted with a first part shared by a few dozen keys, the others are constants or camel case names without point.
+ */
+public final class SyntheticBundle {
+	public enum Shape {
+		/**
+		 * CEA sorted, the fast path of every check
+		 */
+		SORTED,
+		/**
+		 * CEA sorted except a few swapped neighbours, like a file after a manual edit
+		 */
+		NEARLY_SORTED,
+		/**
+		 * Random order with CEA looking separators
+		 */
+		SHUFFLED
+	}
+
+	private static final String[] WORDS = { "button", "label", "tooltip", "title", "error", "warning", "message", "cursor", "panel", "dialog", "menu",
+			"option", "acquisition", "calibration", "position", "projection", "source", "depth", "scan", "measure", "view", "header", "footer", "status" };
+	private static final int KEYS_PER_GROUP = 20;
+	private static final double SWAPPED_RATIO = 0.01;
+
+	private SyntheticBundle() {
+	}
+
+	static List<String> createKeys(int count, long seed) {
+		Random random = new Random(seed);
+		int groupCount = Math.max(1, count / KEYS_PER_GROUP);
+		Set<String> keys = new LinkedHashSet<>(count * 2);
+		while (keys.size() < count) {
+			int kind = random.nextInt(10);
+			StringBuilder key = new StringBuilder();
+			if (kind == 0) {
+				key.append(word(random).toUpperCase()).append('_').append(word(random).toUpperCase()).append(random.nextInt(count));
+			} else if (kind == 1) {
+				key.append(Character.toUpperCase(word(random).charAt(0))).append(word(random).substring(1)).append(random.nextInt(count));
+			} else {
+				key.append(word(random)).append(random.nextInt(groupCount));
+				int segments = 1 + random.nextInt(3);
+				for (int i = 0; i < segments; i++) {
+					key.append('.').append(word(random));
+				}
+				key.append(random.nextInt(KEYS_PER_GROUP));
+			}
+			keys.add(key.toString());
+		}
+		return new ArrayList<>(keys);
+	}
+
+	static String createText(List<String> keys, Shape shape, String locale, long seed) {
+		List<String> orderedKeys = new ArrayList<>(keys);
+		orderedKeys.sort(CeaKey.ORDER);
+		Random random = new Random(seed);
+		if (shape == Shape.NEARLY_SORTED) {
+			int swaps = Math.max(1, (int) (orderedKeys.size() * SWAPPED_RATIO));
+			for (int i = 0; i < swaps && orderedKeys.size() > 1; i++) {
+				int index = random.nextInt(orderedKeys.size() - 1);
+				Collections.swap(orderedKeys, index, index + 1);
+			}
+		} else if (shape == Shape.SHUFFLED) {
+			Collections.shuffle(orderedKeys, random);
+		}
+		StringBuilder text = new StringBuilder(orderedKeys.size() * 48);
+		String previousKey = null;
+		for (String key : orderedKeys) {
+			if (previousKey != null) {
+				text.append(CeaKey.isSameGroup(previousKey, CeaKey.describe(previousKey), key, CeaKey.describe(key)) ? "\n" : "\n\n");
+			}
+			text.append(key).append(" = ").append("Value of ").append(key).append(" (").append(locale).append(')');
+			previousKey = key;
+		}
+		return text.append('\n').toString();
+	}
+
+	private static String word(Random random) {
+		return WORDS[random.nextInt(WORDS.length)];
+	}
+}
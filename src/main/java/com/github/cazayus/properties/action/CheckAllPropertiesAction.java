@@ -0,0 +1,161 @@
+package com.github.cazayus.properties.action;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.github.cazayus.properties.engine.KeyOrdering;
+import com.github.cazayus.properties.index.CeaFileSummary;
+import com.github.cazayus.properties.index.CeaSortedIndex;
+import com.github.cazayus.properties.inspection.PropertiesSortTask;
+import com.github.cazayus.properties.inspection.UnsortedPropertiesFileInspection;
+import com.github.cazayus.properties.settings.CeaPropertiesSettings;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.lang.properties.PropertiesFileType;
+import com.intellij.lang.properties.PropertiesImplUtil;
+import com.intellij.lang.properties.ResourceBundle;
+import com.intellij.lang.properties.psi.PropertiesFile;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+
+/**
+ * Checks every properties file of the project, grouped by resource bundle, and offers to sort the unsorted ones <br>
+ * The files and their CEA sortedness come from the indexes, only the grouping by resource bundle runs per file, in parallel read actions. <br>
+ * An ordering the index does not have is checked per file in the same read actions. They are non-blocking, a write action cancels them <br>
+ * and they start again after it, so typing never waits for the check.
+ */
+public final class CheckAllPropertiesAction extends DumbAwareAction {
+	private static final String TITLE = "Check / Sort All CEA Properties";
+	private static final int MAX_LISTED_BUNDLES = 20;
+
+	@Override
+	public void update(@NotNull AnActionEvent e) {
+		e.getPresentation().setEnabled(e.getProject() != null);
+	}
+
+	@Override
+	public void actionPerformed(@NotNull AnActionEvent e) {
+		Project project = e.getProject();
+		if (project != null) {
+			new CheckTask(project).queue();
+		}
+	}
+
+	private static final class CheckTask extends Task.Backgroundable {
+		private final Map<ResourceBundle, List<PropertiesFile>> unsortedFiles = new ConcurrentHashMap<>();
+		private final Map<ResourceBundle, Boolean> bundles = new ConcurrentHashMap<>();
+		@Nullable
+		private Set<VirtualFile> unsortedIndexedFiles;
+		private int fileCount;
+
+		private CheckTask(Project project) {
+			super(project, TITLE, true);
+		}
+
+		@Override
+		public void run(@NotNull ProgressIndicator indicator) {
+			indicator.setIndeterminate(true);
+			indicator.setText("Listing properties files");
+			GlobalSearchScope scope = GlobalSearchScope.projectScope(myProject);
+			DumbService dumbService = DumbService.getInstance(myProject);
+			Collection<VirtualFile> files = dumbService.runReadActionInSmartMode(() -> FileTypeIndex.getFiles(PropertiesFileType.INSTANCE, scope));
+			KeyOrdering ordering = CeaPropertiesSettings.getInstance(myProject).getOrdering();
+			if (CeaFileSummary.isIndexed(ordering)) {
+				unsortedIndexedFiles = new HashSet<>(dumbService.runReadActionInSmartMode(() -> CeaSortedIndex.getUnsortedFiles(scope, ordering)));
+			}
+			fileCount = files.size();
+			indicator.setIndeterminate(false);
+			indicator.setText("Checking " + fileCount + " properties files");
+			AtomicInteger doneCount = new AtomicInteger();
+			JobLauncher.getInstance().invokeConcurrentlyUnderProgress(new ArrayList<>(files), indicator, file -> {
+				CheckedFile checkedFile = ReadAction.nonBlocking(() -> check(file)).executeSynchronously();
+				if (checkedFile != null) {
+					bundles.put(checkedFile.resourceBundle, Boolean.TRUE);
+					if (checkedFile.unsorted) {
+						unsortedFiles.computeIfAbsent(checkedFile.resourceBundle, bundle -> new CopyOnWriteArrayList<>()).add(checkedFile.propertiesFile);
+					}
+				}
+				indicator.setFraction((double) doneCount.incrementAndGet() / fileCount);
+				return true;
+			});
+		}
+
+		// Only reads, the read action may run again when a write action cancels it
+		@Nullable
+		private CheckedFile check(VirtualFile file) {
+			PsiFile psiFile = file.isValid() ? PsiManager.getInstance(myProject).findFile(file) : null;
+			PropertiesFile propertiesFile = psiFile != null ? PropertiesImplUtil.getPropertiesFile(psiFile) : null;
+			if (propertiesFile == null) {
+				return null;
+			}
+			boolean unsorted = unsortedIndexedFiles != null
+					? unsortedIndexedFiles.contains(file)
+					: !UnsortedPropertiesFileInspection.isCeaSortedIndexed(propertiesFile);
+			return new CheckedFile(propertiesFile, propertiesFile.getResourceBundle(), unsorted);
+		}
+
+		@Override
+		public void onSuccess() {
+			if (myProject.isDisposed()) {
+				return;
+			}
+			String summary = fileCount + " properties files in " + bundles.size() + " resource bundles";
+			if (unsortedFiles.isEmpty()) {
+				Messages.showInfoMessage(myProject, summary + ", all CEA sorted.", TITLE);
+				return;
+			}
+			List<ResourceBundle> unsortedBundles = new ArrayList<>(unsortedFiles.keySet());
+			unsortedBundles.sort(Comparator.comparing(ResourceBundle::getBaseName));
+			StringBuilder message = new StringBuilder(summary).append(", ").append(unsortedBundles.size()).append(" not CEA sorted:\n");
+			List<PropertiesFile> filesToSort = new ArrayList<>();
+			for (int i = 0; i < unsortedBundles.size(); i++) {
+				List<PropertiesFile> files = unsortedFiles.get(unsortedBundles.get(i));
+				filesToSort.addAll(files);
+				if (i < MAX_LISTED_BUNDLES) {
+					message.append('\n').append(unsortedBundles.get(i).getBaseName()).append(" (").append(files.size()).append(" unsorted files)");
+				}
+			}
+			if (unsortedBundles.size() > MAX_LISTED_BUNDLES) {
+				message.append("\n... and ").append(unsortedBundles.size() - MAX_LISTED_BUNDLES).append(" more");
+			}
+			String[] options = { "Sort " + filesToSort.size() + " Files", Messages.getCancelButton() };
+			int answer = Messages.showDialog(myProject, message.toString(), TITLE, options, 0, Messages.getWarningIcon());
+			if (answer == 0) {
+				new PropertiesSortTask(myProject, "Sort all CEA properties", filesToSort).queue();
+			}
+		}
+	}
+
+	private static final class CheckedFile {
+		private final PropertiesFile propertiesFile;
+		private final ResourceBundle resourceBundle;
+		private final boolean unsorted;
+
+		private CheckedFile(PropertiesFile propertiesFile, ResourceBundle resourceBundle, boolean unsorted) {
+			this.propertiesFile = propertiesFile;
+			this.resourceBundle = resourceBundle;
+			this.unsorted = unsorted;
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package com.github.cazayus.properties.diagnostic;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.ui.Messages;
+
+/**
+ * Shows the {@link PhaseMetrics} collected since the start of the IDE, or since the last reset, and writes them to idea.log
+ */
+public final class DumpPhaseMetricsAction extends DumbAwareAction {
+	private static final Logger LOGGER = Logger.getInstance(DumpPhaseMetricsAction.class);
+	private static final String TITLE = "CEA Properties Metrics";
+
+	@Override
+	public void actionPerformed(@NotNull AnActionEvent e) {
+		PhaseMetrics metrics = PhaseMetrics.getInstance();
+		String dump = metrics.dump();
+		LOGGER.info(TITLE + "\n" + dump);
+		int answer = Messages.showDialog(e.getProject(), dump, TITLE, new String[] { Messages.getOkButton(), "Reset" }, 0, Messages.getInformationIcon());
+		if (answer == 1) {
+			metrics.reset();
+		}
+	}
+}
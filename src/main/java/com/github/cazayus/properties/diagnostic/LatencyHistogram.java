@@ -0,0 +1,77 @@
+package com.github.cazayus.properties.diagnostic;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram with power of two buckets in microseconds <br>
+ * Percentiles are the upper bound of their bucket, which is precise enough to tell a slow phase from a fast one.
+ */
+final class LatencyHistogram {
+	private static final int BUCKET_COUNT = 32;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+	private final LongAdder fixCount = new LongAdder();
+
+	void record(long nanos, boolean fixApplied) {
+		long micros = Math.max(nanos / 1000L, 0L);
+		buckets.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1));
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+		if (fixApplied) {
+			fixCount.increment();
+		}
+	}
+
+	long getCount() {
+		return count.sum();
+	}
+
+	long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	long getFixCount() {
+		return fixCount.sum();
+	}
+
+	/**
+	 * @return the upper bound in microseconds of the bucket holding this fraction of the recorded durations
+	 */
+	long getPercentileMicros(double fraction) {
+		long total = 0L;
+		long[] snapshot = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			snapshot[i] = buckets.get(i);
+			total += snapshot[i];
+		}
+		long threshold = (long) Math.ceil(total * fraction);
+		long seen = 0L;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += snapshot[i];
+			if (seen >= threshold && seen > 0L) {
+				return 1L << i;
+			}
+		}
+		return 0L;
+	}
+
+	void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			buckets.set(i, 0L);
+		}
+		count.reset();
+		totalNanos.reset();
+		maxNanos.reset();
+		fixCount.reset();
+	}
+}
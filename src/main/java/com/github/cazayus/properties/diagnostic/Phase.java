@@ -0,0 +1,27 @@
+package com.github.cazayus.properties.diagnostic;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The steps of the plugin that are timed, from the save of a file to the formatting of its properties
+ */
+public enum Phase {
+	SAVE("Save action"),
+	INSPECTION_PROCESSOR("Inspection processor"),
+	INSPECTION_PROCESSOR_FIX("Inspection processor fixes"),
+	INSPECTION("Inspection visitor"),
+	BATCH_INSPECTION("Batch inspection"),
+	QUICK_FIX("Sort quick fix"),
+	FORMATTING("Formatting blocks");
+
+	private final String displayName;
+
+	Phase(String displayName) {
+		this.displayName = displayName;
+	}
+
+	@NotNull
+	public String getDisplayName() {
+		return displayName;
+	}
+}
@@ -0,0 +1,36 @@
+package com.github.cazayus.properties.diagnostic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of one {@link Phase} on one file, the duration is the one of the event itself <br>
+ * Enabled by default, so any recording has it, a custom .jfc settings file can disable it by the name below.
+ */
+@Name("com.github.cazayus.properties.Phase")
+@Label("CEA Properties Phase")
+@Category("CEA Properties")
+@Description("One step of the CEA properties plugin on one file")
+@StackTrace(false)
+final class PhaseEvent extends Event {
+	@Label("Phase")
+	String phase;
+
+	@Label("File")
+	String filePath;
+
+	@Label("Properties")
+	@Description("Number of properties in the file, 0 when the phase does not read them")
+	int propertyCount;
+
+	@Label("Locales")
+	@Description("Number of files of the resource bundle, 0 when the phase does not look at the bundle")
+	int localeCount;
+
+	@Label("Fix Applied")
+	boolean fixApplied;
+}
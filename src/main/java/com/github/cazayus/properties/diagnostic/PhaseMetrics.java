@@ -0,0 +1,58 @@
+package com.github.cazayus.properties.diagnostic;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+
+/**
+ * In-IDE counters and latency histograms of every {@link Phase}, fed by {@link PhaseTimer} and shown by {@link DumpPhaseMetricsAction}
+ */
+@Service
+public final class PhaseMetrics {
+	private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+
+	public PhaseMetrics() {
+		for (Phase phase : Phase.values()) {
+			histograms.put(phase, new LatencyHistogram());
+		}
+	}
+
+	public static PhaseMetrics getInstance() {
+		return ApplicationManager.getApplication().getService(PhaseMetrics.class);
+	}
+
+	void record(@NotNull Phase phase, long nanos, boolean fixApplied) {
+		histograms.get(phase).record(nanos, fixApplied);
+	}
+
+	public void reset() {
+		for (LatencyHistogram histogram : histograms.values()) {
+			histogram.reset();
+		}
+	}
+
+	/**
+	 * @return one line per phase with its count, mean, percentiles, maximum and applied fixes
+	 */
+	@NotNull
+	public String dump() {
+		StringBuilder dump = new StringBuilder();
+		for (Phase phase : Phase.values()) {
+			LatencyHistogram histogram = histograms.get(phase);
+			long count = histogram.getCount();
+			dump.append(phase.getDisplayName()).append(": ").append(count).append(" calls");
+			if (count > 0L) {
+				dump.append(String.format(Locale.ROOT, ", mean %.2f ms, p50 <= %d µs, p90 <= %d µs, p99 <= %d µs, max %.2f ms, %d fixes",
+						histogram.getTotalNanos() / 1e6 / count, histogram.getPercentileMicros(0.5), histogram.getPercentileMicros(0.9),
+						histogram.getPercentileMicros(0.99), histogram.getMaxNanos() / 1e6, histogram.getFixCount()));
+			}
+			dump.append('\n');
+		}
+		return dump.toString();
+	}
+}
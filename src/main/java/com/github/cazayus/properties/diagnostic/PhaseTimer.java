@@ -0,0 +1,53 @@
+package com.github.cazayus.properties.diagnostic;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+
+/**
+ * Times one {@link Phase} on one file, into the {@link PhaseMetrics} and, when a recording enables it, a {@link PhaseEvent} <br>
+ * Usage: {@code PhaseTimer timer = PhaseTimer.start(Phase.SAVE); ... timer.stop(file, propertyCount, localeCount, fixApplied);}
+ */
+public final class PhaseTimer {
+	private final Phase phase;
+	private final PhaseEvent event = new PhaseEvent();
+	private final long startNanos;
+
+	private PhaseTimer(Phase phase) {
+		this.phase = phase;
+		event.begin();
+		startNanos = System.nanoTime();
+	}
+
+	@NotNull
+	public static PhaseTimer start(@NotNull Phase phase) {
+		return new PhaseTimer(phase);
+	}
+
+	/**
+	 * @return true when a recording takes the {@link PhaseEvent}, the only one reading the property and locale counts given to stop
+	 */
+	public boolean isEventEnabled() {
+		return event.isEnabled();
+	}
+
+	public void stop(@Nullable PsiFile psiFile, int propertyCount, int localeCount, boolean fixApplied) {
+		stop(psiFile != null ? psiFile.getVirtualFile() : null, propertyCount, localeCount, fixApplied);
+	}
+
+	public void stop(@Nullable VirtualFile file, int propertyCount, int localeCount, boolean fixApplied) {
+		long nanos = System.nanoTime() - startNanos;
+		event.end();
+		PhaseMetrics.getInstance().record(phase, nanos, fixApplied);
+		if (event.shouldCommit()) {
+			event.phase = phase.name();
+			event.filePath = file != null ? file.getPath() : null;
+			event.propertyCount = propertyCount;
+			event.localeCount = localeCount;
+			event.fixApplied = fixApplied;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.github.cazayus.properties.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The distinct keys of all the locales of a resource bundle, sorted once for the whole bundle and numbered by rank <br>
+ * Each property of a locale only keeps the rank of its key: sorting a locale is a counting sort on ranks, so no locale sorts or compares <br>
+ * key strings again. The keys are sorted in buckets of their first segment, like {@link PropertiesText#bucketSortedIndexes()}. <br>
+ * Only the sort is kept: the groups and the locales defining a key are not looked up here, the bundle check reads the per file verdicts <br>
+ * of the index instead. Keys compare in the {@link KeyOrdering} of the texts, which must all have the same.
+ */
+public final class BundleKeyRanks {
+	private static final int PARALLEL_SORT_MIN_SIZE = 8192;
+
+	private final int[][] propertyRanks;
+	private int size;
+
+	private BundleKeyRanks(int localeCount) {
+		propertyRanks = new int[localeCount][];
+	}
+
+	/**
+	 * @param locales the parsed files of the bundle, a locale is then designated by its index in this list
+	 */
+	@NotNull
+	public static BundleKeyRanks build(@NotNull List<PropertiesText> locales) {
+		BundleKeyRanks keyRanks = new BundleKeyRanks(locales.size());
+		KeyOrdering ordering = locales.isEmpty() ? KeyOrdering.PLAIN : locales.get(0).getOrdering();
+		for (PropertiesText locale : locales) {
+			if (locale.getOrdering() != ordering) {
+				throw new IllegalArgumentException("Locales in different key orderings: " + ordering + " and " + locale.getOrdering());
+			}
+		}
+		// Most keys are in every locale, a key is only given an id and a bucket by the first locale defining it
+		Map<String, Integer> keyIds = new HashMap<>();
+		Map<String, Bucket> buckets = new LinkedHashMap<>();
+		List<Object> sortKeys = new ArrayList<>();
+		for (int locale = 0; locale < locales.size(); locale++) {
+			PropertiesText propertiesText = locales.get(locale);
+			int[] ids = new int[propertiesText.size()];
+			for (int i = 0; i < propertiesText.size(); i++) {
+				String key = propertiesText.getKey(i);
+				if (key == null) {
+					ids[i] = -1;
+					continue;
+				}
+				Integer keyId = keyIds.get(key);
+				if (keyId == null) {
+					keyId = keyRanks.size++;
+					keyIds.put(key, keyId);
+					sortKeys.add(propertiesText.getSortKey(i));
+					int point = key.indexOf('.');
+					buckets.computeIfAbsent(point < 0 ? key : key.substring(0, point), segment -> new Bucket()).add(keyId, point >= 0);
+				}
+				ids[i] = keyId;
+			}
+			// Key ids until the keys are ranked
+			keyRanks.propertyRanks[locale] = ids;
+		}
+		keyRanks.rank(buckets.values(), ordering, sortKeys.toArray());
+		return keyRanks;
+	}
+
+	/**
+	 * Same bucket sort as {@link PropertiesText#bucketSortedIndexes()}
+	 */
+	private void rank(Iterable<Bucket> firstSegmentBuckets, KeyOrdering ordering, Object[] sortKeys) {
+		IntBinaryOperator comparator = (keyId1, keyId2) -> ordering.compareSortKeys(sortKeys[keyId1], sortKeys[keyId2]);
+		List<int[]> buckets = new ArrayList<>();
+		for (Bucket bucket : firstSegmentBuckets) {
+			// A key without point is alone in its bucket, before the keys with a point starting like it
+			if (bucket.keyId >= 0) {
+				buckets.add(new int[] { bucket.keyId });
+			}
+			if (bucket.groupSize > 0) {
+				buckets.add(Arrays.copyOf(bucket.groupKeyIds, bucket.groupSize));
+			}
+		}
+		if (size >= PARALLEL_SORT_MIN_SIZE) {
+			buckets.parallelStream().forEach(bucket -> PropertiesText.mergeSort(bucket, new int[bucket.length], 0, bucket.length, comparator));
+		} else {
+			buckets.forEach(bucket -> PropertiesText.mergeSort(bucket, new int[bucket.length], 0, bucket.length, comparator));
+		}
+		buckets.sort((bucket1, bucket2) -> comparator.applyAsInt(bucket1[0], bucket2[0]));
+
+		int[] keyRanks = new int[size];
+		int rank = 0;
+		for (int[] bucket : buckets) {
+			for (int keyId : bucket) {
+				keyRanks[keyId] = rank++;
+			}
+		}
+		for (int[] ranks : propertyRanks) {
+			for (int i = 0; i < ranks.length; i++) {
+				if (ranks[i] >= 0) {
+					ranks[i] = keyRanks[ranks[i]];
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of distinct keys in the bundle
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Same result as {@link PropertiesText#sortedIndexes()} on the locale, counted by rank without comparing any key
+	 */
+	@NotNull
+	public int[] sortedIndexes(int locale) {
+		int[] ranks = propertyRanks[locale];
+		// Properties without key first, at position 0, then each rank at its rank + 1
+		int[] positions = new int[size + 2];
+		for (int rank : ranks) {
+			positions[rank + 2]++;
+		}
+		for (int i = 2; i < positions.length; i++) {
+			positions[i] += positions[i - 1];
+		}
+		int[] indexes = new int[ranks.length];
+		for (int i = 0; i < ranks.length; i++) {
+			indexes[positions[ranks[i] + 1]++] = i;
+		}
+		return indexes;
+	}
+
+	// The keys starting with one first segment: the key without point equal to it, and the keys of its group
+	private static final class Bucket {
+		private int keyId = -1;
+		private int[] groupKeyIds;
+		private int groupSize;
+
+		private void add(int keyId, boolean inGroup) {
+			if (!inGroup) {
+				this.keyId = keyId;
+				return;
+			}
+			if (groupKeyIds == null) {
+				groupKeyIds = new int[4];
+			} else if (groupSize == groupKeyIds.length) {
+				groupKeyIds = Arrays.copyOf(groupKeyIds, groupSize * 2);
+			}
+			groupKeyIds[groupSize++] = keyId;
+		}
+	}
+}
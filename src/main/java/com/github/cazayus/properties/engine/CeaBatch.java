@@ -0,0 +1,208 @@
+package com.github.cazayus.properties.engine;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Command line entry point checking or sorting whole directory trees of properties files without starting the IDE <br>
+ * Files are read through memory mapping in check mode and processed in parallel on all cores. <br>
+ * Exit code is 0 when everything is sorted (or has been sorted), 1 when unsorted files were found, 2 on usage or IO errors.
+ */
+public final class CeaBatch {
+	private static final String USAGE = "Usage: CeaBatch [--fix] [--charset <charset>] [--delimiter <char>] [--ordering plain|natural|collator]"
+			+ " [--threads <count>] <file or directory>...";
+	private static final String PROPERTIES_EXTENSION = ".properties";
+
+	private final boolean fix;
+	private final Charset charset;
+	private final char delimiter;
+	private final KeyOrdering ordering;
+	private final PrintStream out;
+	@Nullable
+	private final CheckedFileCache cache;
+	private final AtomicInteger unsortedCount = new AtomicInteger();
+	private final AtomicInteger errorCount = new AtomicInteger();
+
+	public CeaBatch(boolean fix, Charset charset, char delimiter, KeyOrdering ordering, PrintStream out) {
+		this(fix, charset, delimiter, ordering, out, null);
+	}
+
+	CeaBatch(boolean fix, Charset charset, char delimiter, KeyOrdering ordering, PrintStream out, @Nullable CheckedFileCache cache) {
+		this.fix = fix;
+		this.charset = charset;
+		this.delimiter = delimiter;
+		this.ordering = ordering;
+		this.out = out;
+		this.cache = cache;
+	}
+
+	public static void main(String[] args) {
+		System.exit(run(args, System.out, System.err));
+	}
+
+	static int run(String[] args, PrintStream out, PrintStream err) {
+		return run(args, out, err, null, null);
+	}
+
+	/**
+	 * A {@link CeaDaemon} does not share the working directory of its clients, the paths of its requests must be absolute
+	 *
+	 * @param cache the verdicts of the previous runs of a {@link CeaDaemon}, null to check every file
+	 * @param pool the pool of the {@link CeaDaemon}, shared by its requests which then ignore {@code --threads}, null to create one
+	 */
+	static int run(String[] args, PrintStream out, PrintStream err, @Nullable CheckedFileCache cache, @Nullable ForkJoinPool pool) {
+		boolean fix = false;
+		Charset charset = StandardCharsets.ISO_8859_1;
+		char delimiter = CeaRules.DEFAULT_DELIMITER;
+		KeyOrdering ordering = KeyOrdering.PLAIN;
+		int threads = Runtime.getRuntime().availableProcessors();
+		List<Path> roots = new ArrayList<>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--fix":
+					fix = true;
+					break;
+				case "--charset":
+					charset = Charset.forName(args[++i]);
+					break;
+				case "--delimiter":
+					delimiter = args[++i].charAt(0);
+					break;
+				case "--ordering":
+					ordering = KeyOrdering.valueOf(args[++i].toUpperCase(Locale.ROOT));
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				default:
+					roots.add(Paths.get(args[i]));
+				}
+			}
+		} catch (RuntimeException e) {
+			err.println(USAGE);
+			return 2;
+		}
+		if (roots.isEmpty() || threads < 1) {
+			err.println(USAGE);
+			return 2;
+		}
+		for (Path root : roots) {
+			if (pool != null && !root.isAbsolute()) {
+				err.println("Relative path in a daemon request: " + root);
+				return 2;
+			}
+		}
+
+		CeaBatch batch = new CeaBatch(fix, charset, delimiter, ordering, out, cache);
+		ForkJoinPool runPool = pool != null ? pool : new ForkJoinPool(threads);
+		try {
+			List<Path> files = collectPropertiesFiles(roots);
+			runPool.submit(() -> files.parallelStream().forEach(batch::process)).get();
+			out.println(files.size() + " properties files, " + batch.unsortedCount.get() + (fix ? " sorted" : " unsorted") + ", " + batch.errorCount.get()
+					+ " errors");
+		} catch (IOException | UncheckedIOException | ExecutionException e) {
+			err.println(e.getMessage());
+			return 2;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return 2;
+		} finally {
+			if (runPool != pool) {
+				runPool.shutdown();
+			}
+		}
+		if (batch.errorCount.get() > 0) {
+			return 2;
+		}
+		return !fix && batch.unsortedCount.get() > 0 ? 1 : 0;
+	}
+
+	private static List<Path> collectPropertiesFiles(List<Path> roots) throws IOException {
+		List<Path> files = new ArrayList<>();
+		for (Path root : roots) {
+			try (Stream<Path> paths = Files.walk(root)) {
+				files.addAll(paths.filter(CeaBatch::isPropertiesFile).collect(Collectors.toList()));
+			}
+		}
+		return files;
+	}
+
+	private static boolean isPropertiesFile(Path path) {
+		// A file system root such as / has no file name
+		Path fileName = path.getFileName();
+		return fileName != null && fileName.toString().endsWith(PROPERTIES_EXTENSION) && Files.isRegularFile(path);
+	}
+
+	void process(Path file) {
+		try {
+			PropertiesText propertiesText = null;
+			boolean sorted;
+			if (cache != null) {
+				sorted = cache.isSorted(file, charset, ordering, this::isSorted);
+			} else {
+				propertiesText = PropertiesText.parse(fix ? read(file) : map(file), ordering);
+				sorted = CeaRules.isCeaSorted(propertiesText);
+			}
+			if (sorted) {
+				return;
+			}
+			if (fix) {
+				if (propertiesText == null) {
+					propertiesText = PropertiesText.parse(read(file), ordering);
+				}
+				String sortedText = CeaRules.sort(propertiesText, delimiter);
+				// A property continuing on several lines stays unsorted whatever its place, the file is left as it is
+				if (!CeaRules.isCeaSorted(PropertiesText.parse(sortedText, ordering))) {
+					errorCount.incrementAndGet();
+					out.println("Error " + file + ": cannot be sorted (multi-line property)");
+					return;
+				}
+				Files.write(file, sortedText.getBytes(charset));
+				out.println("Sorted " + file);
+			} else {
+				out.println("Unsorted " + file);
+			}
+			unsortedCount.incrementAndGet();
+		} catch (IOException | RuntimeException e) {
+			errorCount.incrementAndGet();
+			out.println("Error " + file + ": " + e.getMessage());
+		}
+	}
+
+	private boolean isSorted(byte[] content) {
+		return CeaRules.isCeaSorted(PropertiesText.parse(charset.decode(ByteBuffer.wrap(content)), ordering));
+	}
+
+	private CharSequence map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return charset.decode(buffer);
+		}
+	}
+
+	// Files about to be rewritten are not mapped, a mapped file cannot be written to on Windows until the mapping is collected
+	private CharSequence read(Path file) throws IOException {
+		return charset.decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+	}
+}
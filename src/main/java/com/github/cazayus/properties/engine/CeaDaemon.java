@@ -0,0 +1,225 @@
+package com.github.cazayus.properties.engine;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Long running {@link CeaBatch} for build tools and commit hooks, so each module or commit skips the JVM startup and warm-up <br>
+ * It listens on a port of the loopback interface. A request is a connection sending in UTF-8 the token of the daemon, then the arguments of <br>
+ * one {@link CeaBatch} run, one per line and ended by an empty line, with absolute paths. The response is the output of the run followed by <br>
+ * a last line {@code exit <code>}. The token is written at startup in a file only its owner can read, so other users of the machine cannot <br>
+ * sort or walk the files of the owner. The verdicts are kept in a {@link CheckedFileCache}, so a repeated run only reads the changed files. <br>
+ * At most {@value #MAX_CONCURRENT_REQUESTS} requests run at a time, all on one pool. A request {@code --stop} stops the daemon.
+ */
+public final class CeaDaemon {
+	private static final String USAGE = "Usage: CeaDaemon [--port <port>] [--token-file <file>] [--threads <count>]";
+	private static final int DEFAULT_PORT = 7431;
+	private static final int MAX_CONCURRENT_REQUESTS = 4;
+	// A client has this long to send its request, so a stalled connection does not hold one of the requests forever
+	private static final int REQUEST_TIMEOUT_MILLIS = 10_000;
+	private static final int TOKEN_BYTES = 32;
+	private static final String STOP = "--stop";
+	private static final String EXIT = "exit ";
+
+	private final ServerSocket serverSocket;
+	private final Path tokenFile;
+	private final byte[] token;
+	private final CheckedFileCache cache = new CheckedFileCache();
+	private final ForkJoinPool checkPool;
+	private final Semaphore requestPermits = new Semaphore(MAX_CONCURRENT_REQUESTS);
+	private final ExecutorService requestExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS, runnable -> {
+		Thread thread = new Thread(runnable, "CeaDaemon request");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * @param tokenFile the file receiving the token, null for {@code .cea-daemon/<port>.token} in the home directory
+	 * @param threads the number of threads checking the files of all the requests
+	 */
+	CeaDaemon(int port, @Nullable Path tokenFile, int threads) throws IOException {
+		serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+		this.tokenFile = tokenFile != null ? tokenFile : Paths.get(System.getProperty("user.home"), ".cea-daemon", getPort() + ".token");
+		token = createToken();
+		try {
+			writeToken(this.tokenFile, token);
+		} catch (IOException e) {
+			serverSocket.close();
+			throw e;
+		}
+		checkPool = new ForkJoinPool(threads);
+	}
+
+	public static void main(String[] args) {
+		int port = DEFAULT_PORT;
+		Path tokenFile = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--port":
+					port = Integer.parseInt(args[++i]);
+					break;
+				case "--token-file":
+					tokenFile = Paths.get(args[++i]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				default:
+					throw new IllegalArgumentException(args[i]);
+				}
+			}
+			if (threads < 1) {
+				throw new IllegalArgumentException(String.valueOf(threads));
+			}
+		} catch (RuntimeException e) {
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		try {
+			CeaDaemon daemon = new CeaDaemon(port, tokenFile, threads);
+			// Printed once bound, so a script starting the daemon with --port 0 learns its port
+			System.out.println("Listening on port " + daemon.getPort());
+			System.out.println("Token in " + daemon.getTokenFile());
+			daemon.serve();
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+		}
+	}
+
+	int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	@NotNull
+	Path getTokenFile() {
+		return tokenFile;
+	}
+
+	/**
+	 * Answers the requests until a stop request or {@link #stop()}, several requests run at the same time
+	 */
+	void serve() throws IOException {
+		try {
+			while (!serverSocket.isClosed()) {
+				// The connections beyond the running requests wait in the backlog of the socket
+				requestPermits.acquire();
+				Socket socket;
+				try {
+					socket = serverSocket.accept();
+				} catch (IOException e) {
+					requestPermits.release();
+					throw e;
+				}
+				requestExecutor.execute(() -> {
+					try {
+						answer(socket);
+					} finally {
+						requestPermits.release();
+					}
+				});
+			}
+		} catch (SocketException e) {
+			// Closed by a stop request
+			if (!serverSocket.isClosed()) {
+				throw e;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			requestExecutor.shutdown();
+			checkPool.shutdown();
+			Files.deleteIfExists(tokenFile);
+		}
+	}
+
+	void stop() throws IOException {
+		serverSocket.close();
+	}
+
+	private void answer(Socket socket) {
+		try (Socket client = socket;
+				BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+				PrintStream response = new PrintStream(client.getOutputStream(), false, StandardCharsets.UTF_8.name())) {
+			client.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+			String requestToken = reader.readLine();
+			if (requestToken == null || !MessageDigest.isEqual(token, requestToken.getBytes(StandardCharsets.UTF_8))) {
+				response.println("Invalid token, see " + tokenFile);
+				response.println(EXIT + 2);
+				return;
+			}
+			List<String> args = new ArrayList<>();
+			for (String line = reader.readLine(); line != null && !line.isEmpty(); line = reader.readLine()) {
+				args.add(line);
+			}
+			if (args.size() == 1 && args.get(0).equals(STOP)) {
+				response.println(EXIT + 0);
+				response.flush();
+				stop();
+				return;
+			}
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			int exitCode = run(args.toArray(new String[0]), output);
+			response.print(output.toString(StandardCharsets.UTF_8.name()));
+			response.println(EXIT + exitCode);
+		} catch (IOException e) {
+			// The client went away or was too slow, nothing to answer
+		}
+	}
+
+	// The run prints from several threads, its output is sent once complete
+	private int run(String[] args, ByteArrayOutputStream output) throws UnsupportedEncodingException {
+		PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8.name());
+		return CeaBatch.run(args, out, out, cache, checkPool);
+	}
+
+	private static byte[] createToken() {
+		byte[] randomBytes = new byte[TOKEN_BYTES];
+		new SecureRandom().nextBytes(randomBytes);
+		StringBuilder token = new StringBuilder(TOKEN_BYTES * 2);
+		for (byte randomByte : randomBytes) {
+			token.append(Character.forDigit((randomByte >> 4) & 0xF, 16)).append(Character.forDigit(randomByte & 0xF, 16));
+		}
+		return token.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static void writeToken(Path tokenFile, byte[] token) throws IOException {
+		Path directory = tokenFile.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		// Created anew, so the file of a previous daemon does not keep its permissions
+		Files.deleteIfExists(tokenFile);
+		if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			Files.createFile(tokenFile, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		} else {
+			// The home directory of a user is already private on Windows
+			Files.createFile(tokenFile);
+		}
+		Files.write(tokenFile, token);
+	}
+}
@@ -0,0 +1,102 @@
+package com.github.cazayus.properties.engine;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * How a sorted property is written: the delimiter, the spaces around it and the alignment of the delimiters of a group <br>
+ * Applied while the sorted text is built, so the sort output is already what the formatter would make of it and needs no reformatting pass. <br>
+ * The blank lines are not part of it, they follow the CEA rules.
+ */
+public final class CeaFormat {
+	/**
+	 * The delimiter without spaces nor alignment, like the batch command line always wrote properties
+	 */
+	public static final CeaFormat DEFAULT = new CeaFormat(CeaRules.DEFAULT_DELIMITER, false, false);
+
+	private final char delimiter;
+	private final boolean spacesAroundDelimiter;
+	private final boolean alignGroupDelimiters;
+
+	public CeaFormat(char delimiter, boolean spacesAroundDelimiter, boolean alignGroupDelimiters) {
+		this.delimiter = delimiter;
+		this.spacesAroundDelimiter = spacesAroundDelimiter;
+		this.alignGroupDelimiters = alignGroupDelimiters;
+	}
+
+	public char getDelimiter() {
+		return delimiter;
+	}
+
+	public boolean isSpacesAroundDelimiter() {
+		return spacesAroundDelimiter;
+	}
+
+	public boolean isAlignGroupDelimiters() {
+		return alignGroupDelimiters;
+	}
+
+	/**
+	 * A group is a run of sorted properties written without blank line between them
+	 *
+	 * @return for each property index, the length its key is padded to so the delimiters of its group are aligned, null without alignment
+	 */
+	@Nullable
+	int[] keyColumns(@NotNull PropertiesText propertiesText, @NotNull int[] sortedIndexes) {
+		if (!alignGroupDelimiters) {
+			return null;
+		}
+		int[] keyColumns = new int[propertiesText.size()];
+		int groupStart = 0;
+		int groupColumn = 0;
+		for (int i = 0; i < sortedIndexes.length; i++) {
+			int index = sortedIndexes[i];
+			groupColumn = Math.max(groupColumn, propertiesText.getKeyEnd(index) - propertiesText.getKeyStart(index));
+			if (i + 1 == sortedIndexes.length || !CeaRules.isSameGroupOrNull(propertiesText, index, sortedIndexes[i + 1])) {
+				for (int j = groupStart; j <= i; j++) {
+					keyColumns[sortedIndexes[j]] = groupColumn;
+				}
+				groupStart = i + 1;
+				groupColumn = 0;
+			}
+		}
+		return keyColumns;
+	}
+
+	/**
+	 * Appends the property with its doc comment <br>
+	 * A property without key is dropped like the sort always did, only its doc comment is kept, on its own line: nothing separates it from what follows.
+	 *
+	 * @param keyColumns the result of {@link #keyColumns(PropertiesText, int[])}
+	 */
+	void appendProperty(@NotNull StringBuilder builder, @NotNull PropertiesText propertiesText, int index, @Nullable int[] keyColumns) {
+		String docComment = propertiesText.getDocComment(index);
+		if (docComment != null) {
+			builder.append(docComment).append(CeaRules.LINE_SEPARATOR);
+		}
+		if (!propertiesText.hasKey(index)) {
+			return;
+		}
+		CharSequence text = propertiesText.getText();
+		int keyStart = propertiesText.getKeyStart(index);
+		int keyEnd = propertiesText.getKeyEnd(index);
+		builder.append(text, keyStart, keyEnd);
+		if (keyColumns != null) {
+			for (int padding = keyColumns[index] - (keyEnd - keyStart); padding > 0; padding--) {
+				builder.append(' ');
+			}
+		}
+		if (spacesAroundDelimiter) {
+			builder.append(' ');
+		}
+		builder.append(delimiter);
+		int valueStart = propertiesText.getValueStart(index);
+		int valueEnd = propertiesText.getValueEnd(index);
+		if (valueEnd > valueStart) {
+			if (spacesAroundDelimiter) {
+				builder.append(' ');
+			}
+			builder.append(text, valueStart, valueEnd);
+		}
+	}
+}
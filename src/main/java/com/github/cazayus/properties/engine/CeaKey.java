@@ -0,0 +1,85 @@
+package com.github.cazayus.properties.engine;
+
+import java.util.Comparator;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Compact descriptor of a property key for the CEA rules <br>
+ * The descriptor packs the hash of the first part of the key (before the first point) in its high half and the index of the first point <br>
+ * (-1 without point) in its low half, so consecutive keys are grouped without any substring and the check loop allocates nothing.
+ */
+public final class CeaKey {
+	/**
+	 * The {@link KeyOrdering#PLAIN} order of keys, null keys first
+	 */
+	public static final Comparator<CharSequence> ORDER = Comparator.nullsFirst(CeaKey::compare);
+
+	private CeaKey() {
+	}
+
+	public static long describe(@NotNull CharSequence key) {
+		int hash = 0;
+		int point = -1;
+		for (int i = 0; i < key.length(); i++) {
+			char c = key.charAt(i);
+			if (c == '.') {
+				point = i;
+				break;
+			}
+			hash = 31 * hash + c;
+		}
+		return ((long) hash << 32) | (point & 0xFFFFFFFFL);
+	}
+
+	public static int getPointIndex(long descriptor) {
+		return (int) descriptor;
+	}
+
+	public static int getFirstKeyPartHash(long descriptor) {
+		return (int) (descriptor >>> 32);
+	}
+
+	/**
+	 * Two keys are in the same group when both have a point and share the same first part, they are then written without a blank line between them
+	 */
+	public static boolean isSameGroup(@NotNull CharSequence previousKey, long previousDescriptor, @NotNull CharSequence key, long descriptor) {
+		int point = getPointIndex(descriptor);
+		if (point < 0 || point != getPointIndex(previousDescriptor) || getFirstKeyPartHash(descriptor) != getFirstKeyPartHash(previousDescriptor)) {
+			return false;
+		}
+		for (int i = 0; i < point; i++) {
+			if (previousKey.charAt(i) != key.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Same result as {@link String#compareTo(String)}, without converting the char sequences
+	 */
+	public static int compare(@NotNull CharSequence key1, @NotNull CharSequence key2) {
+		int length = Math.min(key1.length(), key2.length());
+		for (int i = 0; i < length; i++) {
+			char c1 = key1.charAt(i);
+			char c2 = key2.charAt(i);
+			if (c1 != c2) {
+				return c1 - c2;
+			}
+		}
+		return key1.length() - key2.length();
+	}
+
+	/**
+	 * @return true when the key contains escapes, its raw text is then not the key to compare
+	 */
+	public static boolean hasEscape(@NotNull CharSequence rawKey) {
+		for (int i = 0; i < rawKey.length(); i++) {
+			if (rawKey.charAt(i) == '\\') {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,148 @@
+package com.github.cazayus.properties.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Every CEA rule broken by a file, found in one pass over its properties <br>
+ * Unlike {@link CeaRules#isCeaSorted(PropertiesText)} it does not stop at the first problem, so the inspection can point at the right property <br>
+ * and the sort can tell a file that only needs its blank lines fixed from a file whose properties have to move.
+ */
+public final class CeaReport {
+	/**
+	 * The broken rule, always reported on the property that comes second
+	 */
+	public enum Kind {
+		/**
+		 * The property is before the previous one of the same group
+		 */
+		GROUP_ORDER,
+		/**
+		 * The property starts a group, or has no point, and goes before the previous group
+		 */
+		GROUP_BOUNDARY,
+		/**
+		 * The property is in the same group as the previous one but not on the next line
+		 */
+		UNEXPECTED_BLANK_LINE,
+		/**
+		 * The property starts a group, or has no point, but is not separated by exactly one blank line
+		 */
+		MISSING_BLANK_LINE,
+		/**
+		 * The key or the value continues on several lines, which no sort fixes
+		 */
+		MULTI_LINE,
+		/**
+		 * The property has no key
+		 */
+		NO_KEY
+	}
+
+	/**
+	 * One broken rule on one property
+	 */
+	public static final class Violation {
+		private final Kind kind;
+		private final int index;
+
+		private Violation(Kind kind, int index) {
+			this.kind = kind;
+			this.index = index;
+		}
+
+		@NotNull
+		public Kind getKind() {
+			return kind;
+		}
+
+		/**
+		 * @return the index of the property in the {@link PropertiesText}
+		 */
+		public int getIndex() {
+			return index;
+		}
+	}
+
+	private final List<Violation> violations;
+	private final boolean orderBroken;
+	private final boolean sortable;
+
+	private CeaReport(List<Violation> violations, boolean orderBroken, boolean sortable) {
+		this.violations = violations;
+		this.orderBroken = orderBroken;
+		this.sortable = sortable;
+	}
+
+	@NotNull
+	public static CeaReport analyse(@NotNull PropertiesText propertiesText) {
+		List<Violation> violations = new ArrayList<>();
+		boolean orderBroken = false;
+		boolean sortable = true;
+		String previousKey = null;
+		int previousIndex = -1;
+		long previousDescriptor = 0L;
+		for (int i = 0; i < propertiesText.size(); i++) {
+			String key = propertiesText.getKey(i);
+			if (key == null) {
+				violations.add(new Violation(Kind.NO_KEY, i));
+				orderBroken = true;
+				continue;
+			}
+			if (propertiesText.isMultiLine(i)) {
+				violations.add(new Violation(Kind.MULTI_LINE, i));
+				sortable = false;
+			}
+			long descriptor = propertiesText.getKeyDescriptor(i);
+			if (previousKey != null) {
+				boolean sameGroup = CeaKey.isSameGroup(previousKey, previousDescriptor, key, descriptor);
+				if (propertiesText.compareKeys(previousIndex, i) > 0) {
+					violations.add(new Violation(sameGroup ? Kind.GROUP_ORDER : Kind.GROUP_BOUNDARY, i));
+					orderBroken = true;
+				}
+				PropertiesText.Gap gap = propertiesText.getGap(i);
+				if (sameGroup && gap != PropertiesText.Gap.LINE) {
+					violations.add(new Violation(Kind.UNEXPECTED_BLANK_LINE, i));
+				} else if (!sameGroup && gap != PropertiesText.Gap.BLANK_LINE) {
+					violations.add(new Violation(Kind.MISSING_BLANK_LINE, i));
+				}
+			}
+			previousKey = key;
+			previousIndex = i;
+			previousDescriptor = descriptor;
+		}
+		return new CeaReport(violations.isEmpty() ? Collections.emptyList() : violations, orderBroken, sortable);
+	}
+
+	/**
+	 * @return true when the file is CEA sorted
+	 */
+	public boolean isEmpty() {
+		return violations.isEmpty();
+	}
+
+	/**
+	 * @return the violations ordered by property index
+	 */
+	@NotNull
+	public List<Violation> getViolations() {
+		return violations;
+	}
+
+	/**
+	 * @return true when properties have to move, false when only the lines between them are wrong
+	 */
+	public boolean isOrderBroken() {
+		return orderBroken;
+	}
+
+	/**
+	 * @return false when a property continues on several lines, the file then stays unsorted whatever the sort does
+	 */
+	public boolean isSortable() {
+		return sortable;
+	}
+}
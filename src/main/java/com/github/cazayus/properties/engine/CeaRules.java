@@ -0,0 +1,170 @@
+package com.github.cazayus.properties.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The CEA ordering rules, free of any PSI so they can run outside of the IDE <br>
+ * Keys are grouped by their first segment (the part before the first point), properties of the same group follow each other <br>
+ * on consecutive lines, and every group or key without a point is separated from its neighbours by one blank line.
+ */
+public final class CeaRules {
+	public static final String LINE_SEPARATOR = "\n";
+	public static final String TWO_LINE_SEPARATOR = LINE_SEPARATOR + LINE_SEPARATOR;
+	public static final char DEFAULT_DELIMITER = '=';
+
+	private CeaRules() {
+	}
+
+	/**
+	 * @return the number of line returns when the white spaces are only made of line returns, 0 otherwise
+	 */
+	public static int countLineReturns(@NotNull CharSequence whiteSpace) {
+		return countLineReturns(whiteSpace, 0, whiteSpace.length());
+	}
+
+	static int countLineReturns(@NotNull CharSequence text, int start, int end) {
+		int lineReturns = 0;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c == '\n') {
+				lineReturns++;
+			} else if (c != '\r' || i + 1 >= end || text.charAt(i + 1) != '\n') {
+				return 0;
+			}
+		}
+		return lineReturns;
+	}
+
+	/**
+	 * Same verdict as the inspection on the PSI of the same text, keys compared in the {@link KeyOrdering} of the text
+	 */
+	public static boolean isCeaSorted(@NotNull PropertiesText propertiesText) {
+		String previousKey = null;
+		long previousDescriptor = 0L;
+		for (int i = 0; i < propertiesText.size(); i++) {
+			String key = propertiesText.getKey(i);
+			if (key == null || propertiesText.isMultiLine(i)) {
+				return false;
+			}
+			long descriptor = propertiesText.getKeyDescriptor(i);
+			// The first loop does nothing because of this
+			if (previousKey != null) {
+				boolean sameGroup = CeaKey.isSameGroup(previousKey, previousDescriptor, key, descriptor);
+				PropertiesText.Gap expectedGap = sameGroup ? PropertiesText.Gap.LINE : PropertiesText.Gap.BLANK_LINE;
+				if (propertiesText.getGap(i) != expectedGap || propertiesText.compareKeys(i - 1, i) > 0) {
+					return false;
+				}
+			}
+			previousKey = key;
+			previousDescriptor = descriptor;
+		}
+		return true;
+	}
+
+	/**
+	 * Same as {@link #sort(PropertiesText, CeaFormat)} with the delimiter alone between the keys and the values
+	 */
+	@NotNull
+	public static String sort(@NotNull PropertiesText propertiesText, char delimiter) {
+		return sort(propertiesText, new CeaFormat(delimiter, false, false));
+	}
+
+	/**
+	 * Builds the CEA sorted text of the whole file, each property written in the format <br>
+	 * Like the quick fix, text before the first property and after the last one is kept, comments attached to a property move with it and <br>
+	 * the other comments between properties are dropped, as are the properties without key, see {@link CeaFormat#appendProperty}.
+	 */
+	@NotNull
+	public static String sort(@NotNull PropertiesText propertiesText, @NotNull CeaFormat format) {
+		CharSequence text = propertiesText.getText();
+		if (propertiesText.size() == 0) {
+			return text.toString();
+		}
+		int[] sortedIndexes = propertiesText.sortedIndexes();
+		int[] keyColumns = format.keyColumns(propertiesText, sortedIndexes);
+		StringBuilder rawText = new StringBuilder(text.length() + sortedIndexes.length);
+		rawText.append(text, 0, propertiesText.getPropertiesStart());
+		for (int i = 0; i < sortedIndexes.length; i++) {
+			int index = sortedIndexes[i];
+			format.appendProperty(rawText, propertiesText, index, keyColumns);
+			if (propertiesText.hasKey(index) && i <= (sortedIndexes.length - 2)) {
+				rawText.append(isSameGroupOrNull(propertiesText, index, sortedIndexes[i + 1]) ? LINE_SEPARATOR : TWO_LINE_SEPARATOR);
+			}
+		}
+		rawText.append(text, propertiesText.getPropertiesEnd(), text.length());
+		return rawText.toString();
+	}
+
+	/**
+	 * @return true when both properties belong to the same group, or when one of them has no key
+	 */
+	static boolean isSameGroupOrNull(@NotNull PropertiesText propertiesText, int index, int nextIndex) {
+		String key = propertiesText.getKey(index);
+		String nextKey = propertiesText.getKey(nextIndex);
+		return key == null || nextKey == null
+				|| CeaKey.isSameGroup(key, propertiesText.getKeyDescriptor(index), nextKey, propertiesText.getKeyDescriptor(nextIndex));
+	}
+
+	/**
+	 * @return the key or value with its escapes and line continuations resolved, like the Properties PSI does
+	 */
+	@NotNull
+	public static String unescape(@NotNull CharSequence escaped) {
+		StringBuilder unescaped = new StringBuilder(escaped.length());
+		int i = 0;
+		while (i < escaped.length()) {
+			char c = escaped.charAt(i++);
+			if (c != '\\' || i == escaped.length()) {
+				unescaped.append(c);
+				continue;
+			}
+			c = escaped.charAt(i++);
+			switch (c) {
+			case 'u':
+				int codePoint = i + 4 <= escaped.length() ? parseHex(escaped, i) : -1;
+				if (codePoint < 0) {
+					// Malformed unicode escape, kept as is
+					unescaped.append(c);
+				} else {
+					unescaped.append((char) codePoint);
+					i += 4;
+				}
+				break;
+			case '\r':
+			case '\n':
+				// Line continuation, the leading white spaces of the next line are not part of the key
+				while (i < escaped.length() && Character.isWhitespace(escaped.charAt(i))) {
+					i++;
+				}
+				break;
+			case 't':
+				unescaped.append('\t');
+				break;
+			case 'n':
+				unescaped.append('\n');
+				break;
+			case 'r':
+				unescaped.append('\r');
+				break;
+			case 'f':
+				unescaped.append('\f');
+				break;
+			default:
+				unescaped.append(c);
+			}
+		}
+		return unescaped.toString();
+	}
+
+	private static int parseHex(CharSequence text, int start) {
+		int value = 0;
+		for (int i = start; i < start + 4; i++) {
+			int digit = Character.digit(text.charAt(i), 16);
+			if (digit < 0) {
+				return -1;
+			}
+			value = (value << 4) + digit;
+		}
+		return value;
+	}
+}
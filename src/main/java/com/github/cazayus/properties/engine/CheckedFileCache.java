@@ -0,0 +1,92 @@
+package com.github.cazayus.properties.engine;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Verdicts of the files already checked by a {@link CeaDaemon}, so a repeated run only parses the files whose content changed <br>
+ * A file with the same size and modification time is not read again, a file rewritten with the same content (by a checkout, a build...) <br>
+ * is read and hashed but not parsed. A verdict holds for the charset and key ordering the file was checked with. <br>
+ * The verdicts of the {@value #MAX_FILES} files checked the most recently are kept, so a daemon walking many trees does not grow without limit.
+ */
+final class CheckedFileCache {
+	/**
+	 * A file modified this recently may change again within the precision of its modification time, its size and time are not trusted
+	 */
+	private static final long RACY_MILLIS = 2000L;
+	private static final String HASH_ALGORITHM = "SHA-256";
+	private static final int MAX_FILES = 100_000;
+
+	// In access order, the least recently checked file is the eldest
+	private final Map<Path, CheckedFile> checkedFiles = Collections.synchronizedMap(new LinkedHashMap<Path, CheckedFile>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Path, CheckedFile> eldest) {
+			return size() > MAX_FILES;
+		}
+	});
+
+	/**
+	 * @param checker checks the content of the file when it changed since its last check
+	 */
+	boolean isSorted(@NotNull Path file, @NotNull Charset charset, @NotNull KeyOrdering ordering, @NotNull Predicate<byte[]> checker) throws IOException {
+		Path key = file.toAbsolutePath().normalize();
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+			long lastModified = attributes.lastModifiedTime().toMillis();
+			CheckedFile checkedFile = checkedFiles.get(key);
+			boolean sameRules = checkedFile != null && checkedFile.charset.equals(charset) && checkedFile.ordering == ordering;
+			if (sameRules && checkedFile.size == attributes.size() && checkedFile.lastModified == lastModified) {
+				return checkedFile.sorted;
+			}
+			// Read after the attributes, a change in between only makes the next run read the file again
+			byte[] content = Files.readAllBytes(key);
+			byte[] hash = hash(content);
+			boolean sorted = sameRules && Arrays.equals(checkedFile.hash, hash) ? checkedFile.sorted : checker.test(content);
+			boolean racy = System.currentTimeMillis() - lastModified < RACY_MILLIS;
+			checkedFiles.put(key, new CheckedFile(racy ? -1L : attributes.size(), lastModified, hash, charset, ordering, sorted));
+			return sorted;
+		} catch (NoSuchFileException e) {
+			checkedFiles.remove(key);
+			throw e;
+		}
+	}
+
+	private static byte[] hash(byte[] content) {
+		try {
+			return MessageDigest.getInstance(HASH_ALGORITHM).digest(content);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static final class CheckedFile {
+		private final long size;
+		private final long lastModified;
+		private final byte[] hash;
+		private final Charset charset;
+		private final KeyOrdering ordering;
+		private final boolean sorted;
+
+		private CheckedFile(long size, long lastModified, byte[] hash, Charset charset, KeyOrdering ordering, boolean sorted) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.hash = hash;
+			this.charset = charset;
+			this.ordering = ordering;
+			this.sorted = sorted;
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package com.github.cazayus.properties.engine;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The orders in which CEA sorted keys can be, shared by every checker and sorter <br>
+ * Each order compares sort keys built once per key, so an expensive order costs one key construction per property and not one per comparison. <br>
+ * All orders are total and keep the properties of a group (same first segment, with point) next to each other.
+ */
+public enum KeyOrdering {
+	/**
+	 * Same as {@link String#compareTo(String)}, the sort key is the key itself
+	 */
+	PLAIN("Plain") {
+		@NotNull
+		@Override
+		public Object createSortKey(@NotNull CharSequence key) {
+			return key;
+		}
+
+		@Override
+		public int compareSortKeys(@NotNull Object sortKey1, @NotNull Object sortKey2) {
+			return CeaKey.compare((CharSequence) sortKey1, (CharSequence) sortKey2);
+		}
+	},
+	/**
+	 * Runs of digits compare as numbers, so {@code error.2} comes before {@code error.10}, the rest compares like {@link #PLAIN}
+	 */
+	NATURAL("Natural (numbers by value)") {
+		@NotNull
+		@Override
+		public Object createSortKey(@NotNull CharSequence key) {
+			return new NaturalSortKey(key.toString());
+		}
+
+		@Override
+		public int compareSortKeys(@NotNull Object sortKey1, @NotNull Object sortKey2) {
+			return ((NaturalSortKey) sortKey1).compareTo((NaturalSortKey) sortKey2);
+		}
+	},
+	/**
+	 * Unicode collation with the collator of the root locale, the same whatever the locale of the IDE or of the build, so a team and its CI agree: <br>
+	 * the first segments compare first, then the rest of the keys
+	 */
+	COLLATOR("Unicode collation") {
+		@NotNull
+		@Override
+		public Object createSortKey(@NotNull CharSequence key) {
+			return new CollatorSortKey(key.toString());
+		}
+
+		@Override
+		public int compareSortKeys(@NotNull Object sortKey1, @NotNull Object sortKey2) {
+			return ((CollatorSortKey) sortKey1).compareTo((CollatorSortKey) sortKey2);
+		}
+	};
+
+	private final String displayName;
+	private final Comparator<CharSequence> comparator = Comparator.nullsFirst(this::compare);
+
+	KeyOrdering(String displayName) {
+		this.displayName = displayName;
+	}
+
+	/**
+	 * @return the object to compare with {@link #compareSortKeys(Object, Object)}, to build once per key
+	 */
+	@NotNull
+	public abstract Object createSortKey(@NotNull CharSequence key);
+
+	public abstract int compareSortKeys(@NotNull Object sortKey1, @NotNull Object sortKey2);
+
+	/**
+	 * Builds both sort keys, loops should keep the sort key of the previous key instead
+	 */
+	public int compare(@NotNull CharSequence key1, @NotNull CharSequence key2) {
+		return compareSortKeys(createSortKey(key1), createSortKey(key2));
+	}
+
+	/**
+	 * @return the comparator of the keys, null keys first
+	 */
+	@NotNull
+	public Comparator<CharSequence> comparator() {
+		return comparator;
+	}
+
+	@NotNull
+	public String getDisplayName() {
+		return displayName;
+	}
+
+	@Override
+	public String toString() {
+		return displayName;
+	}
+
+	/**
+	 * The key cut in runs of digits and runs of other characters, two runs of digits compare by value then by length
+	 */
+	private static final class NaturalSortKey implements Comparable<NaturalSortKey> {
+		private final String key;
+		// Start of every run, the end of the last run is the key length
+		private final int[] runStarts;
+
+		private NaturalSortKey(String key) {
+			this.key = key;
+			int runCount = 0;
+			int[] starts = new int[key.length()];
+			for (int i = 0; i < key.length(); i++) {
+				if (i == 0 || isDigit(key.charAt(i)) != isDigit(key.charAt(i - 1))) {
+					starts[runCount++] = i;
+				}
+			}
+			runStarts = Arrays.copyOf(starts, runCount);
+		}
+
+		@Override
+		public int compareTo(@NotNull NaturalSortKey other) {
+			int runCount = Math.min(runStarts.length, other.runStarts.length);
+			for (int run = 0; run < runCount; run++) {
+				int start1 = runStarts[run];
+				int end1 = run + 1 < runStarts.length ? runStarts[run + 1] : key.length();
+				int start2 = other.runStarts[run];
+				int end2 = run + 1 < other.runStarts.length ? other.runStarts[run + 1] : other.key.length();
+				int comparison = isDigit(key.charAt(start1)) && isDigit(other.key.charAt(start2))
+						? compareNumbers(key, start1, end1, other.key, start2, end2)
+						: compareChars(key, start1, end1, other.key, start2, end2);
+				if (comparison != 0) {
+					return comparison;
+				}
+			}
+			return runStarts.length - other.runStarts.length;
+		}
+
+		private static int compareNumbers(String key1, int start1, int end1, String key2, int start2, int end2) {
+			int significantStart1 = skipZeros(key1, start1, end1);
+			int significantStart2 = skipZeros(key2, start2, end2);
+			int comparison = (end1 - significantStart1) - (end2 - significantStart2);
+			if (comparison == 0) {
+				comparison = compareChars(key1, significantStart1, end1, key2, significantStart2, end2);
+			}
+			// Same value, fewer leading zeros first
+			return comparison != 0 ? comparison : (end1 - start1) - (end2 - start2);
+		}
+
+		private static int skipZeros(String key, int start, int end) {
+			int position = start;
+			while (position < end - 1 && key.charAt(position) == '0') {
+				position++;
+			}
+			return position;
+		}
+
+		private static int compareChars(String key1, int start1, int end1, String key2, int start2, int end2) {
+			int length = Math.min(end1 - start1, end2 - start2);
+			for (int i = 0; i < length; i++) {
+				char c1 = key1.charAt(start1 + i);
+				char c2 = key2.charAt(start2 + i);
+				if (c1 != c2) {
+					return c1 - c2;
+				}
+			}
+			return (end1 - start1) - (end2 - start2);
+		}
+
+		private static boolean isDigit(char c) {
+			return c >= '0' && c <= '9';
+		}
+	}
+
+	/**
+	 * The collation keys of the first segment and of the rest of the key, the plain texts break the ties between keys the collator sees as equal
+	 */
+	private static final class CollatorSortKey implements Comparable<CollatorSortKey> {
+		private static final ThreadLocal<Collator> COLLATORS = ThreadLocal.withInitial(() -> Collator.getInstance(Locale.ROOT));
+
+		private final String key;
+		private final int point;
+		private final CollationKey firstSegment;
+		private final CollationKey rest;
+
+		private CollatorSortKey(String key) {
+			this.key = key;
+			point = key.indexOf('.');
+			Collator collator = COLLATORS.get();
+			firstSegment = collator.getCollationKey(point < 0 ? key : key.substring(0, point));
+			rest = point < 0 ? null : collator.getCollationKey(key.substring(point + 1));
+		}
+
+		@Override
+		public int compareTo(@NotNull CollatorSortKey other) {
+			int comparison = firstSegment.compareTo(other.firstSegment);
+			if (comparison == 0) {
+				comparison = firstSegment.getSourceString().compareTo(other.firstSegment.getSourceString());
+			}
+			if (comparison == 0) {
+				// A key without point goes before the group of the same name
+				comparison = Boolean.compare(rest != null, other.rest != null);
+			}
+			if (comparison == 0 && rest != null) {
+				comparison = rest.compareTo(other.rest);
+			}
+			return comparison != 0 ? comparison : key.compareTo(other.key);
+		}
+	}
+}
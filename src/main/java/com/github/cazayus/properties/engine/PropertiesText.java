@@ -0,0 +1,525 @@
+package com.github.cazayus.properties.engine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Plain text view of a properties file, reduced to what the CEA rules need <br>
+ * The structure mirrors the Properties PSI: text before the first property and after the last one is not part of the properties list, <br>
+ * comments directly above a property (without blank line) are its doc comment, and the white spaces before each property are <br>
+ * resolved to a {@link Gap} the same way the inspection walks the PSI siblings. <br>
+ * The properties are an index of offsets in flat arrays, keys and values are read from the text when asked for. <br>
+ * Keys compare in the {@link KeyOrdering} given when parsing, with the sort key of each key built once.
+ */
+public final class PropertiesText {
+	/**
+	 * What separates a property from the previous one
+	 */
+	public enum Gap {
+		/**
+		 * A single line return, possibly with comments in between
+		 */
+		LINE,
+		/**
+		 * Exactly one blank line after the previous property, possibly followed by comments
+		 */
+		BLANK_LINE,
+		/**
+		 * Anything else: several blank lines, indentation, comment detached from the property...
+		 */
+		OTHER
+	}
+
+	private static final Gap[] GAPS = Gap.values();
+	private static final int DOC_COMMENT_START = 0;
+	private static final int DOC_COMMENT_END = 1;
+	private static final int KEY_START = 2;
+	private static final int KEY_END = 3;
+	private static final int VALUE_START = 4;
+	private static final int VALUE_END = 5;
+	private static final int END = 6;
+	private static final int OFFSETS_PER_PROPERTY = 7;
+	private static final byte GAP_MASK = 0x03;
+	private static final byte MULTI_LINE_FLAG = 0x04;
+	private static final int INITIAL_CAPACITY = 64;
+	private static final long NO_DESCRIPTOR = Long.MIN_VALUE;
+	private static final int PARALLEL_SORT_MIN_SIZE = 8192;
+
+	private final CharSequence text;
+	private final KeyOrdering ordering;
+	private int size;
+	private int[] offsets = new int[INITIAL_CAPACITY * OFFSETS_PER_PROPERTY];
+	private byte[] flags = new byte[INITIAL_CAPACITY];
+	private String[] keys;
+	private long[] keyDescriptors;
+	private Object[] sortKeys;
+
+	private PropertiesText(CharSequence text, KeyOrdering ordering) {
+		this.text = text;
+		this.ordering = ordering;
+	}
+
+	/**
+	 * Parses the text with the {@link KeyOrdering#PLAIN} order of keys
+	 */
+	@NotNull
+	public static PropertiesText parse(@NotNull CharSequence text) {
+		return parse(text, KeyOrdering.PLAIN);
+	}
+
+	@NotNull
+	public static PropertiesText parse(@NotNull CharSequence text, @NotNull KeyOrdering ordering) {
+		PropertiesText propertiesText = new PropertiesText(text, ordering);
+		int length = text.length();
+		int offset = 0;
+		// What precedes the current token, a comment chain takes the gap of its first comment
+		boolean hasPrevious = false;
+		boolean previousIsComment = false;
+		Gap previousCommentGap = Gap.OTHER;
+		int docCommentStart = -1;
+		int docCommentEnd = -1;
+		while (offset < length) {
+			int whiteSpaceStart = offset;
+			offset = skipWhiteSpaces(text, offset, true);
+			if (offset >= length) {
+				break;
+			}
+			int lineReturns = CeaRules.countLineReturns(text, whiteSpaceStart, offset);
+			Gap gap;
+			if (!hasPrevious) {
+				gap = Gap.OTHER;
+			} else if (lineReturns == 1) {
+				gap = previousIsComment ? previousCommentGap : Gap.LINE;
+			} else if (lineReturns == 2) {
+				gap = previousIsComment ? Gap.OTHER : Gap.BLANK_LINE;
+			} else {
+				gap = Gap.OTHER;
+			}
+			if (containsBlankLine(text, whiteSpaceStart, offset)) {
+				docCommentStart = -1;
+			}
+			hasPrevious = true;
+
+			char c = text.charAt(offset);
+			if (c == '#' || c == '!') {
+				int commentEnd = skipToLineEnd(text, offset);
+				if (docCommentStart < 0) {
+					docCommentStart = offset;
+				}
+				docCommentEnd = commentEnd;
+				previousIsComment = true;
+				previousCommentGap = gap;
+				offset = commentEnd;
+				continue;
+			}
+
+			// The doc comment of the first property is outside the properties list
+			boolean hasDocComment = docCommentStart >= 0 && propertiesText.size > 0;
+			offset = propertiesText.lexProperty(offset, gap, hasDocComment ? docCommentStart : -1, hasDocComment ? docCommentEnd : -1);
+			docCommentStart = -1;
+			previousIsComment = false;
+		}
+		return propertiesText;
+	}
+
+	private int lexProperty(int offset, Gap gap, int docCommentStart, int docCommentEnd) {
+		if (size == flags.length) {
+			offsets = Arrays.copyOf(offsets, offsets.length * 2);
+			flags = Arrays.copyOf(flags, flags.length * 2);
+		}
+		int length = text.length();
+		boolean multiLine = false;
+		int position = offset;
+		while (position < length) {
+			char c = text.charAt(position);
+			if (c == '\\') {
+				multiLine |= isLineContinuation(text, position);
+				position = skipEscape(text, position);
+			} else if (c == ' ' || c == '\t' || c == '\f' || c == ':' || c == '=' || c == '\n' || c == '\r') {
+				break;
+			} else {
+				position++;
+			}
+		}
+		int keyEnd = position;
+		int end = position;
+		position = skipWhiteSpaces(text, position, false);
+		if (position < length && (text.charAt(position) == ':' || text.charAt(position) == '=')) {
+			position++;
+			end = position;
+			position = skipWhiteSpaces(text, position, false);
+		}
+		int valueStart = position;
+		while (position < length) {
+			char c = text.charAt(position);
+			if (c == '\\') {
+				multiLine |= isLineContinuation(text, position);
+				position = skipEscape(text, position);
+			} else if (c == '\n' || c == '\r') {
+				break;
+			} else {
+				position++;
+			}
+		}
+		int valueEnd = position;
+		// Trailing white spaces after a separator without value do not belong to the property
+		if (valueEnd > valueStart) {
+			end = valueEnd;
+		} else {
+			valueStart = end;
+			valueEnd = end;
+		}
+		int base = size * OFFSETS_PER_PROPERTY;
+		offsets[base + DOC_COMMENT_START] = docCommentStart;
+		offsets[base + DOC_COMMENT_END] = docCommentEnd;
+		offsets[base + KEY_START] = offset;
+		offsets[base + KEY_END] = keyEnd;
+		offsets[base + VALUE_START] = valueStart;
+		offsets[base + VALUE_END] = valueEnd;
+		offsets[base + END] = end;
+		flags[size] = (byte) (gap.ordinal() | (multiLine ? MULTI_LINE_FLAG : 0));
+		size++;
+		return end;
+	}
+
+	private static boolean isLineContinuation(CharSequence text, int backslash) {
+		return backslash + 1 < text.length() && (text.charAt(backslash + 1) == '\n' || text.charAt(backslash + 1) == '\r');
+	}
+
+	private static int skipEscape(CharSequence text, int backslash) {
+		int position = backslash + 1;
+		if (position >= text.length()) {
+			return position;
+		}
+		if (text.charAt(position) == '\r' && position + 1 < text.length() && text.charAt(position + 1) == '\n') {
+			position++;
+		}
+		return position + 1;
+	}
+
+	private static int skipWhiteSpaces(CharSequence text, int offset, boolean lineReturns) {
+		int position = offset;
+		while (position < text.length()) {
+			char c = text.charAt(position);
+			if (c == ' ' || c == '\t' || c == '\f' || lineReturns && (c == '\n' || c == '\r')) {
+				position++;
+			} else {
+				break;
+			}
+		}
+		return position;
+	}
+
+	private static int skipToLineEnd(CharSequence text, int offset) {
+		int position = offset;
+		while (position < text.length() && text.charAt(position) != '\n' && text.charAt(position) != '\r') {
+			position++;
+		}
+		return position;
+	}
+
+	private static boolean containsBlankLine(CharSequence text, int start, int end) {
+		boolean afterLineReturn = false;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c == '\n') {
+				if (afterLineReturn) {
+					return true;
+				}
+				afterLineReturn = true;
+			} else if (c != '\r') {
+				afterLineReturn = false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the same properties with keys compared in another order, the offsets and the keys read so far are shared
+	 */
+	@NotNull
+	public PropertiesText withOrdering(@NotNull KeyOrdering otherOrdering) {
+		if (otherOrdering == ordering) {
+			return this;
+		}
+		PropertiesText propertiesText = new PropertiesText(text, otherOrdering);
+		propertiesText.size = size;
+		propertiesText.offsets = offsets;
+		propertiesText.flags = flags;
+		propertiesText.keys = keys;
+		propertiesText.keyDescriptors = keyDescriptors;
+		return propertiesText;
+	}
+
+	@NotNull
+	public CharSequence getText() {
+		return text;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	@NotNull
+	public KeyOrdering getOrdering() {
+		return ordering;
+	}
+
+	/**
+	 * @return the start offset of the properties list, which is the first key
+	 */
+	public int getPropertiesStart() {
+		return size == 0 ? text.length() : getKeyStart(0);
+	}
+
+	/**
+	 * @return the end offset of the properties list, which is the end of the last property
+	 */
+	public int getPropertiesEnd() {
+		return size == 0 ? text.length() : getEnd(size - 1);
+	}
+
+	public boolean hasKey(int index) {
+		return getKeyEnd(index) > getKeyStart(index);
+	}
+
+	/**
+	 * @return the unescaped key of the property at this index, null when the property has no key
+	 */
+	@Nullable
+	public String getKey(int index) {
+		if (keys == null) {
+			keys = new String[size];
+		}
+		String key = keys[index];
+		if (key == null && hasKey(index)) {
+			String rawKey = getRawKey(index);
+			key = rawKey.indexOf('\\') < 0 ? rawKey : CeaRules.unescape(rawKey);
+			keys[index] = key;
+		}
+		return key;
+	}
+
+	/**
+	 * @return the {@link CeaKey} descriptor of the key, only meaningful when the property has a key
+	 */
+	public long getKeyDescriptor(int index) {
+		if (keyDescriptors == null) {
+			keyDescriptors = new long[size];
+			Arrays.fill(keyDescriptors, NO_DESCRIPTOR);
+		}
+		long keyDescriptor = keyDescriptors[index];
+		if (keyDescriptor == NO_DESCRIPTOR) {
+			String key = getKey(index);
+			keyDescriptor = key == null ? 0L : CeaKey.describe(key);
+			keyDescriptors[index] = keyDescriptor;
+		}
+		return keyDescriptor;
+	}
+
+	/**
+	 * @return the sort key of the key in the {@link KeyOrdering} of this text, null when the property has no key
+	 */
+	@Nullable
+	public Object getSortKey(int index) {
+		String key = getKey(index);
+		if (key == null || ordering == KeyOrdering.PLAIN) {
+			return key;
+		}
+		if (sortKeys == null) {
+			sortKeys = new Object[size];
+		}
+		Object sortKey = sortKeys[index];
+		if (sortKey == null) {
+			sortKey = ordering.createSortKey(key);
+			sortKeys[index] = sortKey;
+		}
+		return sortKey;
+	}
+
+	/**
+	 * Compares the keys of two properties in the {@link KeyOrdering} of this text, properties without key first
+	 */
+	public int compareKeys(int index1, int index2) {
+		Object sortKey1 = getSortKey(index1);
+		Object sortKey2 = getSortKey(index2);
+		if (sortKey1 == null || sortKey2 == null) {
+			return sortKey1 == null ? sortKey2 == null ? 0 : -1 : 1;
+		}
+		return ordering.compareSortKeys(sortKey1, sortKey2);
+	}
+
+	@NotNull
+	public String getRawKey(int index) {
+		return text.subSequence(getKeyStart(index), getKeyEnd(index)).toString();
+	}
+
+	@NotNull
+	public String getValue(int index) {
+		return text.subSequence(getValueStart(index), getValueEnd(index)).toString();
+	}
+
+	/**
+	 * @return the comment lines directly above the property joined with line returns, null when there is none
+	 */
+	@Nullable
+	public String getDocComment(int index) {
+		int docCommentStart = offsets[index * OFFSETS_PER_PROPERTY + DOC_COMMENT_START];
+		if (docCommentStart < 0) {
+			return null;
+		}
+		int docCommentEnd = offsets[index * OFFSETS_PER_PROPERTY + DOC_COMMENT_END];
+		StringBuilder docComment = new StringBuilder(docCommentEnd - docCommentStart);
+		int position = docCommentStart;
+		while (position < docCommentEnd) {
+			int lineEnd = skipToLineEnd(text, position);
+			if (docComment.length() > 0) {
+				docComment.append(CeaRules.LINE_SEPARATOR);
+			}
+			docComment.append(text, position, lineEnd);
+			position = skipWhiteSpaces(text, lineEnd, true);
+		}
+		return docComment.toString();
+	}
+
+	/**
+	 * @return true when the key or the value continues on several lines
+	 */
+	public boolean isMultiLine(int index) {
+		return (flags[index] & MULTI_LINE_FLAG) != 0;
+	}
+
+	@NotNull
+	public Gap getGap(int index) {
+		return GAPS[flags[index] & GAP_MASK];
+	}
+
+	/**
+	 * @return the start offset of the property, including its doc comment
+	 */
+	public int getStart(int index) {
+		int docCommentStart = offsets[index * OFFSETS_PER_PROPERTY + DOC_COMMENT_START];
+		return docCommentStart >= 0 ? docCommentStart : getKeyStart(index);
+	}
+
+	public int getKeyStart(int index) {
+		return offsets[index * OFFSETS_PER_PROPERTY + KEY_START];
+	}
+
+	public int getKeyEnd(int index) {
+		return offsets[index * OFFSETS_PER_PROPERTY + KEY_END];
+	}
+
+	public int getValueStart(int index) {
+		return offsets[index * OFFSETS_PER_PROPERTY + VALUE_START];
+	}
+
+	public int getValueEnd(int index) {
+		return offsets[index * OFFSETS_PER_PROPERTY + VALUE_END];
+	}
+
+	public int getEnd(int index) {
+		return offsets[index * OFFSETS_PER_PROPERTY + END];
+	}
+
+	/**
+	 * @return the indexes of the properties in the {@link KeyOrdering} of this text, properties with equal keys keep their order in the file
+	 */
+	@NotNull
+	public int[] sortedIndexes() {
+		if (size >= PARALLEL_SORT_MIN_SIZE) {
+			return bucketSortedIndexes();
+		}
+		int[] indexes = new int[size];
+		for (int i = 0; i < size; i++) {
+			indexes[i] = i;
+		}
+		mergeSort(indexes, new int[size], 0, size, this::compareKeys);
+		return indexes;
+	}
+
+	/**
+	 * Same result as the global sort, with the properties first split by first segment and the buckets sorted in parallel <br>
+	 * A bucket is named after the first segment of its keys followed by the point, or after its key for keys without point. No bucket name <br>
+	 * is a prefix of another one except a key without point, which is then shorter than every key of the other bucket. Every {@link KeyOrdering} <br>
+	 * keeps the keys of a bucket next to each other, so the key order is the order of the first keys of the buckets and then the order inside each bucket.
+	 */
+	@NotNull
+	int[] bucketSortedIndexes() {
+		Map<String, Bucket> buckets = new HashMap<>();
+		Bucket keylessBucket = new Bucket(null);
+		Bucket bucket = null;
+		// Keys and sort keys are all built here, so the parallel sorts below only read the caches
+		for (int i = 0; i < size; i++) {
+			getSortKey(i);
+			String key = getKey(i);
+			if (key == null) {
+				keylessBucket.add(i);
+				continue;
+			}
+			int point = CeaKey.getPointIndex(getKeyDescriptor(i));
+			// Properties of a group follow each other, most of them go to the bucket of the previous property
+			if (bucket == null || point < 0 || bucket.name.length() != point + 1 || !key.startsWith(bucket.name)) {
+				bucket = buckets.computeIfAbsent(point < 0 ? key : key.substring(0, point + 1), Bucket::new);
+			}
+			bucket.add(i);
+		}
+		Bucket[] sortedBuckets = buckets.values().toArray(new Bucket[0]);
+		Arrays.sort(sortedBuckets, (bucket1, bucket2) -> compareKeys(bucket1.indexes[0], bucket2.indexes[0]));
+		Arrays.stream(sortedBuckets).parallel().forEach(sortedBucket -> mergeSort(sortedBucket.indexes, new int[sortedBucket.size], 0, sortedBucket.size,
+				this::compareKeys));
+		int[] indexes = new int[size];
+		System.arraycopy(keylessBucket.indexes, 0, indexes, 0, keylessBucket.size);
+		int offset = keylessBucket.size;
+		for (Bucket sortedBucket : sortedBuckets) {
+			System.arraycopy(sortedBucket.indexes, 0, indexes, offset, sortedBucket.size);
+			offset += sortedBucket.size;
+		}
+		return indexes;
+	}
+
+	// Stable merge sort on primitive indexes, so sorting a large file does not box every index
+	static void mergeSort(int[] indexes, int[] buffer, int from, int to, IntBinaryOperator comparator) {
+		if (to - from < 2) {
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		mergeSort(indexes, buffer, from, middle, comparator);
+		mergeSort(indexes, buffer, middle, to, comparator);
+		if (comparator.applyAsInt(indexes[middle - 1], indexes[middle]) <= 0) {
+			return;
+		}
+		System.arraycopy(indexes, from, buffer, from, to - from);
+		int left = from;
+		int right = middle;
+		for (int i = from; i < to; i++) {
+			if (right >= to || left < middle && comparator.applyAsInt(buffer[left], buffer[right]) <= 0) {
+				indexes[i] = buffer[left++];
+			} else {
+				indexes[i] = buffer[right++];
+			}
+		}
+	}
+
+	private static final class Bucket {
+		private final String name;
+		private int[] indexes = new int[4];
+		private int size;
+
+		private Bucket(String name) {
+			this.name = name;
+		}
+
+		private void add(int index) {
+			if (size == indexes.length) {
+				indexes = Arrays.copyOf(indexes, size * 2);
+			}
+			indexes[size++] = index;
+		}
+	}
+}
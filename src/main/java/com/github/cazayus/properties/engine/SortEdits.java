@@ -0,0 +1,260 @@
+package com.github.cazayus.properties.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Computes the smallest set of text replacements that CEA sorts a file <br>
+ * The longest subsequence of properties that is already in order stays in place, only the other properties move next to them, <br>
+ * and only the separators that do not follow the blank line rules are rewritten. Property texts themselves are only touched when a <br>
+ * {@link CeaFormat} is given, the edits then also write every property in that format, so sorting and formatting are one pass and one write.
+ */
+public final class SortEdits {
+	private SortEdits() {
+	}
+
+	/**
+	 * One replacement of the original text, offsets are relative to the original text
+	 */
+	public static final class Replacement {
+		private final int start;
+		private final int end;
+		private final String text;
+
+		Replacement(int start, int end, String text) {
+			this.start = start;
+			this.end = end;
+			this.text = text;
+		}
+
+		public int getStart() {
+			return start;
+		}
+
+		public int getEnd() {
+			return end;
+		}
+
+		@NotNull
+		public String getText() {
+			return text;
+		}
+	}
+
+	/**
+	 * @return the replacements ordered by offset, none when the file is already CEA sorted
+	 */
+	@NotNull
+	public static List<Replacement> compute(@NotNull PropertiesText propertiesText) {
+		return compute(propertiesText, CeaReport.analyse(propertiesText));
+	}
+
+	/**
+	 * @param report the report of the same text, when only blank lines are wrong no property moves and only the reported separators are rewritten
+	 * @return the replacements ordered by offset, none when the file is already CEA sorted
+	 */
+	@NotNull
+	public static List<Replacement> compute(@NotNull PropertiesText propertiesText, @NotNull CeaReport report) {
+		return compute(propertiesText, report, null);
+	}
+
+	/**
+	 * @param format the format of every property of the sorted file, null to keep the property texts as they are
+	 * @return the replacements ordered by offset, none when the file is already CEA sorted, even when its properties are not in the format
+	 */
+	@NotNull
+	public static List<Replacement> compute(@NotNull PropertiesText propertiesText, @NotNull CeaReport report, @Nullable CeaFormat format) {
+		return compute(propertiesText, report, format, null);
+	}
+
+	/**
+	 * @param sortedIndexes the {@link PropertiesText#sortedIndexes()} of the file when already known from its {@link BundleKeyRanks}, null to sort here
+	 */
+	@NotNull
+	public static List<Replacement> compute(@NotNull PropertiesText propertiesText, @NotNull CeaReport report, @Nullable CeaFormat format,
+			@Nullable int[] sortedIndexes) {
+		int size = propertiesText.size();
+		if (size == 0 || report.isEmpty()) {
+			return Collections.emptyList();
+		}
+		CharSequence text = propertiesText.getText();
+		List<Replacement> replacements = new ArrayList<>();
+		if (!report.isOrderBroken() && format == null) {
+			for (CeaReport.Violation violation : report.getViolations()) {
+				if (violation.getKind() == CeaReport.Kind.MULTI_LINE) {
+					continue;
+				}
+				int index = violation.getIndex();
+				int previous = index - 1;
+				addReplacement(replacements, text, propertiesText.getEnd(previous), propertiesText.getStart(index), separator(propertiesText, previous, index));
+			}
+			return replacements;
+		}
+		// The sort is stable so equal keys keep their order and every property gets a distinct rank
+		if (sortedIndexes == null) {
+			sortedIndexes = report.isOrderBroken() ? propertiesText.sortedIndexes() : identity(size);
+		}
+		int[] ranks = new int[size];
+		for (int rank = 0; rank < size; rank++) {
+			ranks[sortedIndexes[rank]] = rank;
+		}
+		boolean[] stable = report.isOrderBroken() ? longestIncreasingSubsequence(ranks) : allTrue(size);
+		// A property without key is dropped, it is rewritten with the properties moving around it
+		for (int i = 0; i < size; i++) {
+			if (!propertiesText.hasKey(i)) {
+				stable[i] = false;
+			}
+		}
+		int[] keyColumns = format != null ? format.keyColumns(propertiesText, sortedIndexes) : null;
+		StringBuilder propertyText = new StringBuilder();
+
+		// Each region lies between two consecutive stable properties, it only holds separators and moving properties
+		int regionStart = propertiesText.getPropertiesStart();
+		int previous = -1;
+		int rank = 0;
+		for (int i = 0; i <= size; i++) {
+			if (i < size && !stable[i]) {
+				continue;
+			}
+			int next = i < size ? i : -1;
+			int regionEnd = next >= 0 ? propertiesText.getStart(next) : propertiesText.getPropertiesEnd();
+			int nextRank = i < size ? ranks[i] : size;
+			StringBuilder target = new StringBuilder();
+			int last = previous;
+			for (; rank < nextRank; rank++) {
+				int moved = sortedIndexes[rank];
+				if (last >= 0 && propertiesText.hasKey(last)) {
+					target.append(separator(propertiesText, last, moved));
+				}
+				appendProperty(target, propertiesText, moved, format, keyColumns);
+				last = moved;
+			}
+			if (last >= 0 && next >= 0 && propertiesText.hasKey(last)) {
+				target.append(separator(propertiesText, last, next));
+			}
+			addReplacement(replacements, text, regionStart, regionEnd, target);
+			// Skip the stable property itself, it is only rewritten to be in the format
+			rank++;
+			if (next >= 0 && format != null) {
+				propertyText.setLength(0);
+				format.appendProperty(propertyText, propertiesText, next, keyColumns);
+				addReplacement(replacements, text, propertiesText.getStart(next), propertiesText.getEnd(next), propertyText);
+			}
+			if (next >= 0) {
+				regionStart = propertiesText.getEnd(next);
+				previous = next;
+			}
+		}
+		return replacements;
+	}
+
+	/**
+	 * @return the text with the replacements applied
+	 */
+	@NotNull
+	public static String apply(@NotNull CharSequence text, @NotNull List<Replacement> replacements) {
+		StringBuilder result = new StringBuilder(text.length());
+		int offset = 0;
+		for (Replacement replacement : replacements) {
+			result.append(text, offset, replacement.start).append(replacement.text);
+			offset = replacement.end;
+		}
+		return result.append(text, offset, text.length()).toString();
+	}
+
+	/**
+	 * @return one replacement covering all the others, so a heavily unsorted file is written in a single pass
+	 */
+	@NotNull
+	public static Replacement merge(@NotNull CharSequence text, @NotNull List<Replacement> replacements) {
+		int start = replacements.get(0).start;
+		int end = replacements.get(replacements.size() - 1).end;
+		StringBuilder merged = new StringBuilder(end - start);
+		int offset = start;
+		for (Replacement replacement : replacements) {
+			merged.append(text, offset, replacement.start).append(replacement.text);
+			offset = replacement.end;
+		}
+		return new Replacement(start, end, merged.toString());
+	}
+
+	private static void appendProperty(StringBuilder target, PropertiesText propertiesText, int index, CeaFormat format, int[] keyColumns) {
+		if (format != null || !propertiesText.hasKey(index)) {
+			(format != null ? format : CeaFormat.DEFAULT).appendProperty(target, propertiesText, index, keyColumns);
+		} else {
+			target.append(propertiesText.getText(), propertiesText.getStart(index), propertiesText.getEnd(index));
+		}
+	}
+
+	private static int[] identity(int size) {
+		int[] indexes = new int[size];
+		for (int i = 0; i < size; i++) {
+			indexes[i] = i;
+		}
+		return indexes;
+	}
+
+	private static boolean[] allTrue(int size) {
+		boolean[] values = new boolean[size];
+		Arrays.fill(values, true);
+		return values;
+	}
+
+	private static String separator(PropertiesText propertiesText, int index, int nextIndex) {
+		return CeaRules.isSameGroupOrNull(propertiesText, index, nextIndex) ? CeaRules.LINE_SEPARATOR : CeaRules.TWO_LINE_SEPARATOR;
+	}
+
+	// Only the part that actually differs is replaced
+	private static void addReplacement(List<? super Replacement> replacements, CharSequence text, int start, int end, CharSequence target) {
+		int prefix = 0;
+		int maxPrefix = Math.min(end - start, target.length());
+		while (prefix < maxPrefix && text.charAt(start + prefix) == target.charAt(prefix)) {
+			prefix++;
+		}
+		int suffix = 0;
+		int maxSuffix = maxPrefix - prefix;
+		while (suffix < maxSuffix && text.charAt(end - 1 - suffix) == target.charAt(target.length() - 1 - suffix)) {
+			suffix++;
+		}
+		if (start + prefix == end - suffix && prefix == target.length() - suffix) {
+			return;
+		}
+		replacements.add(new Replacement(start + prefix, end - suffix, target.subSequence(prefix, target.length() - suffix).toString()));
+	}
+
+	/**
+	 * @return for each position, whether it is part of one longest increasing subsequence of the values
+	 */
+	static boolean[] longestIncreasingSubsequence(int[] values) {
+		int[] tailIndexes = new int[values.length];
+		int[] predecessors = new int[values.length];
+		int length = 0;
+		for (int i = 0; i < values.length; i++) {
+			int low = 0;
+			int high = length;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (values[tailIndexes[middle]] < values[i]) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			predecessors[i] = low > 0 ? tailIndexes[low - 1] : -1;
+			tailIndexes[low] = i;
+			if (low == length) {
+				length++;
+			}
+		}
+		boolean[] inSubsequence = new boolean[values.length];
+		for (int i = length > 0 ? tailIndexes[length - 1] : -1; i >= 0; i = predecessors[i]) {
+			inSubsequence[i] = true;
+		}
+		return inSubsequence;
+	}
+}
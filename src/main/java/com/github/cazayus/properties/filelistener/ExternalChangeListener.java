@@ -0,0 +1,48 @@
+package com.github.cazayus.properties.filelistener;
+
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.github.cazayus.properties.settings.CeaPropertiesSettings;
+import com.intellij.lang.properties.PropertiesFileType;
+import com.intellij.openapi.fileTypes.FileTypeRegistry;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+
+/**
+ * Hands the properties files changed outside of the editor (branch switches, rebases, code generators...) to the {@link ExternalChangeQueue} <br>
+ * of the projects that opted in. Saves from the editor are left to the {@link SaveActionManager}, so the sorts of this plugin, which are <br>
+ * saved like any edit, are not processed again.
+ */
+public final class ExternalChangeListener implements BulkFileListener {
+	@Override
+	public void after(@NotNull List<? extends VFileEvent> events) {
+		Project[] projects = null;
+		for (VFileEvent event : events) {
+			if (event.isFromSave() || !(event instanceof VFileContentChangeEvent || event instanceof VFileCreateEvent || event instanceof VFileMoveEvent)) {
+				continue;
+			}
+			VirtualFile file = event.getFile();
+			if (file == null || !file.isValid() || file.isDirectory() || !FileTypeRegistry.getInstance().isFileOfType(file, PropertiesFileType.INSTANCE)) {
+				continue;
+			}
+			if (projects == null) {
+				projects = ProjectManager.getInstance().getOpenProjects();
+			}
+			for (Project project : projects) {
+				if (!project.isDisposed() && CeaPropertiesSettings.getInstance(project).isSortExternalChanges()
+						&& ProjectFileIndex.getInstance(project).isInContent(file)) {
+					ExternalChangeQueue.getInstance(project).queue(file);
+				}
+			}
+		}
+	}
+}
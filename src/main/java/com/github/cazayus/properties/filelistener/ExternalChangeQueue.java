@@ -0,0 +1,116 @@
+package com.github.cazayus.properties.filelistener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.github.cazayus.properties.inspection.PropertiesSortTask;
+import com.github.cazayus.properties.inspection.UnsortedBundleFiles;
+import com.intellij.lang.properties.psi.PropertiesFile;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vcs.FileStatus;
+import com.intellij.openapi.vcs.ProjectLevelVcsManager;
+import com.intellij.openapi.vcs.changes.ChangeListManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+
+/**
+ * Collects the properties files of one project changed outside of the editor, and checks them as one batch once the changes stop <br>
+ * The batch waits for the indexing started by the changes, is checked across cores by {@link UnsortedBundleFiles}, which also refreshes <br>
+ * the sortedness cached in the index and on the files, and its unsorted files are sorted by one {@link PropertiesSortTask}. <br>
+ * Nothing is sorted while a VCS operation runs, the batch is queued again for after it, and files with merge conflicts are left to the user.
+ */
+@Service
+public final class ExternalChangeQueue implements Disposable {
+	private static final Logger LOGGER = Logger.getInstance(ExternalChangeQueue.class);
+	// A branch switch changes files for longer than a save
+	private static final int MERGING_TIME_SPAN_MS = 1000;
+
+	private final Project project;
+	private final Set<VirtualFile> pendingFiles = new LinkedHashSet<>();
+	private final MergingUpdateQueue queue;
+
+	public ExternalChangeQueue(Project project) {
+		this.project = project;
+		queue = new MergingUpdateQueue("CEA properties external changes", MERGING_TIME_SPAN_MS, true, null, this, null, true);
+	}
+
+	public static ExternalChangeQueue getInstance(@NotNull Project project) {
+		return project.getService(ExternalChangeQueue.class);
+	}
+
+	public void queue(@NotNull VirtualFile file) {
+		synchronized (pendingFiles) {
+			pendingFiles.add(file);
+		}
+		queue.queue(Update.create(this, this::flush));
+	}
+
+	private void flush() {
+		List<VirtualFile> files;
+		synchronized (pendingFiles) {
+			files = new ArrayList<>(pendingFiles);
+			pendingFiles.clear();
+		}
+		if (files.isEmpty() || project.isDisposed()) {
+			return;
+		}
+		DumbService.getInstance(project).runWhenSmart(() -> new CheckTask(files).queue());
+	}
+
+	@Override
+	public void dispose() {
+		synchronized (pendingFiles) {
+			pendingFiles.clear();
+		}
+	}
+
+	private final class CheckTask extends Task.Backgroundable {
+		private final List<VirtualFile> files;
+		private List<PropertiesFile> unsortedFiles;
+
+		private CheckTask(List<VirtualFile> files) {
+			super(project, "Checking properties files changed on disk", true);
+			this.files = files;
+		}
+
+		@Override
+		public void run(@NotNull ProgressIndicator indicator) {
+			indicator.setText("Checking " + files.size() + " properties files changed on disk");
+			unsortedFiles = UnsortedBundleFiles.find(project, files, indicator);
+		}
+
+		@Override
+		public void onSuccess() {
+			if (project.isDisposed() || unsortedFiles.isEmpty()) {
+				return;
+			}
+			// A checkout, rebase or update still writing files would conflict with the sort, the files are checked again after it
+			if (ProjectLevelVcsManager.getInstance(project).isBackgroundVcsOperationRunning()) {
+				LOGGER.debug("VCS operation running, postponing " + unsortedFiles.size() + " unsorted properties files, project " + project);
+				for (PropertiesFile unsortedFile : unsortedFiles) {
+					queue(unsortedFile.getVirtualFile());
+				}
+				return;
+			}
+			// Sorting would move the conflict markers away from the conflicting lines
+			ChangeListManager changeListManager = ChangeListManager.getInstance(project);
+			unsortedFiles.removeIf(file -> changeListManager.getStatus(file.getVirtualFile()) == FileStatus.MERGED_WITH_CONFLICTS);
+			if (unsortedFiles.isEmpty()) {
+				return;
+			}
+			LOGGER.debug("Sorting " + unsortedFiles.size() + " properties files changed on disk, project " + project);
+			new PropertiesSortTask(project, "Sort properties files changed on disk", unsortedFiles).queue();
+		}
+	}
+}
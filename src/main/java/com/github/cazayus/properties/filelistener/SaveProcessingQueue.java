@@ -0,0 +1,118 @@
+package com.github.cazayus.properties.filelistener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.TestOnly;
+
+import com.github.cazayus.properties.inspection.InspectionProcessor;
+import com.github.cazayus.properties.inspection.UnsortedPropertiesFileInspection;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.util.PsiErrorElementUtil;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+
+/**
+ * Collects the saved properties files of one project and processes them together once saves stop for a short while <br>
+ * Saving the same file several times within the window, or a "Save All" touching hundreds of files, costs one scan per file.
+ */
+@Service
+public final class SaveProcessingQueue implements Disposable {
+	private static final Logger LOGGER = Logger.getInstance(SaveProcessingQueue.class);
+	private static final int MERGING_TIME_SPAN_MS = 300;
+
+	private final Project project;
+	private final Set<VirtualFile> pendingFiles = new LinkedHashSet<>();
+	private final MergingUpdateQueue queue;
+
+	public SaveProcessingQueue(Project project) {
+		this.project = project;
+		queue = new MergingUpdateQueue("CEA properties save processing", MERGING_TIME_SPAN_MS, true, null, this, null, true);
+	}
+
+	public static SaveProcessingQueue getInstance(@NotNull Project project) {
+		return project.getService(SaveProcessingQueue.class);
+	}
+
+	public void queue(@NotNull VirtualFile file) {
+		synchronized (pendingFiles) {
+			pendingFiles.add(file);
+		}
+		queue.queue(Update.create(this, this::flush));
+	}
+
+	/**
+	 * Processes the queued files now instead of waiting for the merging time span
+	 */
+	@TestOnly
+	public void flushNow() {
+		queue.flush();
+	}
+
+	private void flush() {
+		List<VirtualFile> files;
+		synchronized (pendingFiles) {
+			files = new ArrayList<>(pendingFiles);
+			pendingFiles.clear();
+		}
+		if (!isProjectValid()) {
+			return;
+		}
+		List<PsiFile> psiFiles = new ArrayList<>(files.size());
+		for (VirtualFile file : files) {
+			PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+			if (isPsiFileEligible(psiFile)) {
+				psiFiles.add(psiFile);
+			}
+		}
+		if (!psiFiles.isEmpty()) {
+			LOGGER.debug("Running inspection processor on " + psiFiles.size() + " files, project " + project);
+			new InspectionProcessor(project, psiFiles, new UnsortedPropertiesFileInspection()).run();
+		}
+	}
+
+	private boolean isPsiFileEligible(PsiFile psiFile) {
+		return psiFile != null && isPsiFileInProject(psiFile) && isPsiFileHasErrors(psiFile) && isPsiFileFresh(psiFile) && isPsiFileValid(psiFile);
+	}
+
+	private boolean isProjectValid() {
+		return project.isInitialized() && !project.isDisposed();
+	}
+
+	private boolean isPsiFileInProject(PsiFile file) {
+		boolean inProject = ProjectRootManager.getInstance(project).getFileIndex().isInContent(file.getVirtualFile());
+		if (!inProject) {
+			LOGGER.debug("File " + file.getVirtualFile().getCanonicalPath() + " not in current project " + project);
+		}
+		return inProject;
+	}
+
+	private boolean isPsiFileHasErrors(PsiFile psiFile) {
+		return !PsiErrorElementUtil.hasErrors(project, psiFile.getVirtualFile());
+	}
+
+	private static boolean isPsiFileFresh(PsiFile psiFile) {
+		return psiFile.getModificationStamp() != 0L;
+	}
+
+	private static boolean isPsiFileValid(PsiFile psiFile) {
+		return psiFile.isValid();
+	}
+
+	@Override
+	public void dispose() {
+		synchronized (pendingFiles) {
+			pendingFiles.clear();
+		}
+	}
+}
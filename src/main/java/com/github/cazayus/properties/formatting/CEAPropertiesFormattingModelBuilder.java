@@ -2,11 +2,16 @@ package com.github.cazayus.properties.formatting;
 
 import org.jetbrains.annotations.NotNull;
 
+import com.github.cazayus.properties.engine.CeaFormat;
+import com.intellij.application.options.CodeStyle;
 import com.intellij.formatting.FormattingContext;
 import com.intellij.formatting.FormattingModel;
 import com.intellij.formatting.FormattingModelBuilder;
 import com.intellij.lang.ASTNode;
+import com.intellij.lang.properties.PropertiesLanguage;
+import com.intellij.lang.properties.psi.codeStyle.PropertiesCodeStyleSettings;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.codeStyle.CodeStyleSettings;
 import com.intellij.psi.formatter.FormattingDocumentModelImpl;
 import com.intellij.psi.formatter.PsiBasedFormattingModel;
@@ -21,6 +26,17 @@ public final class CEAPropertiesFormattingModelBuilder implements FormattingMode
 		CodeStyleSettings codeStyleSettings = formattingContext.getCodeStyleSettings();
 		ASTNode root = TreeUtil.getFileElement((TreeElement) SourceTreeToPsiMap.psiElementToTree(psiElement));
 		FormattingDocumentModelImpl documentModel = FormattingDocumentModelImpl.createOn(psiElement.getContainingFile());
-		return new PsiBasedFormattingModel(psiElement.getContainingFile(), new CEAPropertiesRootBlock(root, codeStyleSettings), documentModel);
+		return new PsiBasedFormattingModel(psiElement.getContainingFile(), new CEAPropertiesRootBlock(root, codeStyleSettings, formattingContext.getFormattingRange()), documentModel);
+	}
+
+	/**
+	 * @return the format the blocks of {@link CEAPropertiesRootBlock} give to the properties of the file, for the sorts to write it directly
+	 */
+	@NotNull
+	public static CeaFormat getFormat(@NotNull PsiFile psiFile) {
+		CodeStyleSettings settings = CodeStyle.getSettings(psiFile);
+		PropertiesCodeStyleSettings propertiesSettings = settings.getCustomSettings(PropertiesCodeStyleSettings.class);
+		return new CeaFormat(propertiesSettings.getDelimiter(), propertiesSettings.SPACES_AROUND_KEY_VALUE_DELIMITER,
+				settings.getCommonSettings(PropertiesLanguage.INSTANCE).ALIGN_GROUP_FIELD_DECLARATIONS);
 	}
 }
@@ -6,6 +6,8 @@ import java.util.List;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import com.github.cazayus.properties.diagnostic.Phase;
+import com.github.cazayus.properties.diagnostic.PhaseTimer;
 import com.intellij.formatting.Alignment;
 import com.intellij.formatting.Alignment.Anchor;
 import com.intellij.formatting.Block;
@@ -17,41 +19,40 @@ import com.intellij.lang.properties.parsing.PropertiesTokenTypes;
 import com.intellij.lang.properties.psi.codeStyle.PropertiesCodeStyleSettings;
 import com.intellij.lang.properties.psi.impl.PropertyKeyImpl;
 import com.intellij.lang.properties.psi.impl.PropertyValueImpl;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiWhiteSpace;
 import com.intellij.psi.codeStyle.CodeStyleSettings;
 import com.intellij.psi.formatter.common.AbstractBlock;
 import com.intellij.psi.tree.TokenSet;
 
+/**
+ * Blocks are only built for the groups of properties (separated by blank lines) that overlap the formatted range, <br>
+ * each with its own separator alignment, so reformatting a few lines does not depend on the size of the file.
+ */
 public final class CEAPropertiesRootBlock extends AbstractBlock {
+	private static final TokenSet PROPERTY_PARTS = TokenSet.create(PropertiesTokenTypes.KEY_CHARACTERS, PropertiesTokenTypes.KEY_VALUE_SEPARATOR,
+			PropertiesTokenTypes.VALUE_CHARACTERS);
 
 	private final CodeStyleSettings mySettings;
-	private Alignment mySeparatorAlignment;
+	private final TextRange myFormattingRange;
+	private int myPropertyCount;
 
-	CEAPropertiesRootBlock(@NotNull ASTNode node, CodeStyleSettings settings) {
+	CEAPropertiesRootBlock(@NotNull ASTNode node, CodeStyleSettings settings, @NotNull TextRange formattingRange) {
 		super(node, null, Alignment.createAlignment());
 		mySettings = settings;
-		mySeparatorAlignment = Alignment.createAlignment(true, Anchor.LEFT);
+		myFormattingRange = formattingRange;
 	}
 
 	@Override
 	protected List<Block> buildChildren() {
+		PhaseTimer timer = PhaseTimer.start(Phase.FORMATTING);
 		List<Block> result = new ArrayList<>();
 		ASTNode child = myNode.getFirstChildNode();
 		while (child != null) {
 			if (!(child instanceof PsiWhiteSpace)) {
 				if (child.getElementType() == PropertiesElementTypes.PROPERTIES_LIST) {
-					ASTNode propertyNode = child.getFirstChildNode();
-					while (propertyNode != null) {
-						if (propertyNode.getElementType() == PropertiesElementTypes.PROPERTY) {
-							collectPropertyBlock(propertyNode, result);
-						} else if (PropertiesTokenTypes.END_OF_LINE_COMMENT.equals(propertyNode.getElementType())
-								|| PropertiesTokenTypes.BAD_CHARACTER.equals(propertyNode.getElementType())) {
-							result.add(new CEAPropertyBlock(propertyNode, null));
-						} else if ((propertyNode.getText().length() - propertyNode.getText().replace("\n", "").length()) > 1) {
-							mySeparatorAlignment = Alignment.createAlignment(true, Anchor.LEFT);
-						}
-						propertyNode = propertyNode.getTreeNext();
-					}
+					collectGroupBlocks(child, result);
 				} else if (PropertiesTokenTypes.BAD_CHARACTER.equals(child.getElementType())) {
 					result.add(new CEAPropertyBlock(child, null));
 				}
@@ -61,19 +62,77 @@ public final class CEAPropertiesRootBlock extends AbstractBlock {
 			}
 			child = child.getTreeNext();
 		}
+		timer.stop(myNode.getPsi().getContainingFile(), myPropertyCount, 0, false);
 		return result;
 	}
 
-	private void collectPropertyBlock(ASTNode propertyNode, List<? super Block> collector) {
-		ASTNode[] nonWhiteSpaces = propertyNode.getChildren(
-				TokenSet.create(PropertiesTokenTypes.KEY_CHARACTERS, PropertiesTokenTypes.KEY_VALUE_SEPARATOR, PropertiesTokenTypes.VALUE_CHARACTERS));
+	private void collectGroupBlocks(ASTNode propertiesList, List<Block> collector) {
+		ASTNode groupStart = null;
+		ASTNode groupEnd = null;
+		TextRange skippedRange = null;
+		for (ASTNode node = propertiesList.getFirstChildNode(); node != null; node = node.getTreeNext()) {
+			if (isGroupContent(node)) {
+				if (node.getElementType() == PropertiesElementTypes.PROPERTY) {
+					myPropertyCount++;
+				}
+				if (groupStart == null) {
+					groupStart = node;
+				}
+				groupEnd = node;
+			} else if (groupStart != null && StringUtil.countNewLines(node.getChars()) > 1) {
+				skippedRange = collectGroup(groupStart, groupEnd, skippedRange, collector);
+				groupStart = null;
+			}
+		}
+		if (groupStart != null) {
+			skippedRange = collectGroup(groupStart, groupEnd, skippedRange, collector);
+		}
+		if (skippedRange != null) {
+			collector.add(new CEASkippedGroupsBlock(skippedRange));
+		}
+	}
+
+	/**
+	 * @return the range of the groups skipped so far, that still needs its block
+	 */
+	@Nullable
+	private TextRange collectGroup(ASTNode groupStart, ASTNode groupEnd, @Nullable TextRange skippedRange, List<? super Block> collector) {
+		TextRange groupRange = new TextRange(groupStart.getStartOffset(), groupEnd.getTextRange().getEndOffset());
+		if (!groupRange.intersects(myFormattingRange)) {
+			return skippedRange == null ? groupRange : skippedRange.union(groupRange);
+		}
+		if (skippedRange != null) {
+			collector.add(new CEASkippedGroupsBlock(skippedRange));
+		}
+		Alignment separatorAlignment = Alignment.createAlignment(true, Anchor.LEFT);
+		ASTNode node = groupStart;
+		while (true) {
+			if (node.getElementType() == PropertiesElementTypes.PROPERTY) {
+				collectPropertyBlock(node, separatorAlignment, collector);
+			} else if (isGroupContent(node)) {
+				collector.add(new CEAPropertyBlock(node, null));
+			}
+			if (node == groupEnd) {
+				return null;
+			}
+			node = node.getTreeNext();
+		}
+	}
+
+	private static boolean isGroupContent(ASTNode node) {
+		return node.getElementType() == PropertiesElementTypes.PROPERTY || PropertiesTokenTypes.END_OF_LINE_COMMENT.equals(node.getElementType())
+				|| PropertiesTokenTypes.BAD_CHARACTER.equals(node.getElementType());
+	}
+
+	private void collectPropertyBlock(ASTNode propertyNode, Alignment separatorAlignment, List<? super Block> collector) {
+		ASTNode[] nonWhiteSpaces = propertyNode.getChildren(PROPERTY_PARTS);
 		for (ASTNode node : nonWhiteSpaces) {
 			if (node instanceof PropertyKeyImpl) {
 				collector.add(new CEAPropertyBlock(node, null));
 			}
 			if (PropertiesTokenTypes.KEY_VALUE_SEPARATOR.equals(node.getElementType())) {
 				collector.add(new CEAPropertyBlock(node,
-						mySettings.getCommonSettings(PropertiesLanguage.INSTANCE).ALIGN_GROUP_FIELD_DECLARATIONS ? mySeparatorAlignment : null));
+						mySettings.getCommonSettings(PropertiesLanguage.INSTANCE).ALIGN_GROUP_FIELD_DECLARATIONS ? separatorAlignment : null));
 			}
 			if (node instanceof PropertyValueImpl) {
 				collector.add(new CEAPropertyBlock(node, null));
@@ -0,0 +1,79 @@
+package com.github.cazayus.properties.formatting;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.formatting.Alignment;
+import com.intellij.formatting.Block;
+import com.intellij.formatting.ChildAttributes;
+import com.intellij.formatting.Indent;
+import com.intellij.formatting.Spacing;
+import com.intellij.formatting.Wrap;
+import com.intellij.openapi.util.TextRange;
+
+/**
+ * One leaf block standing for consecutive groups of properties that are outside of the formatted range <br>
+ * The formatter leaves its content untouched, so these groups never get blocks of their own.
+ */
+final class CEASkippedGroupsBlock implements Block {
+	private final TextRange myTextRange;
+
+	CEASkippedGroupsBlock(@NotNull TextRange textRange) {
+		myTextRange = textRange;
+	}
+
+	@NotNull
+	@Override
+	public TextRange getTextRange() {
+		return myTextRange;
+	}
+
+	@NotNull
+	@Override
+	public List<Block> getSubBlocks() {
+		return Collections.emptyList();
+	}
+
+	@Nullable
+	@Override
+	public Wrap getWrap() {
+		return null;
+	}
+
+	@Nullable
+	@Override
+	public Indent getIndent() {
+		return Indent.getNoneIndent();
+	}
+
+	@Nullable
+	@Override
+	public Alignment getAlignment() {
+		return null;
+	}
+
+	@Nullable
+	@Override
+	public Spacing getSpacing(@Nullable Block child1, @NotNull Block child2) {
+		return null;
+	}
+
+	@NotNull
+	@Override
+	public ChildAttributes getChildAttributes(int newChildIndex) {
+		return new ChildAttributes(Indent.getNoneIndent(), null);
+	}
+
+	@Override
+	public boolean isIncomplete() {
+		return false;
+	}
+
+	@Override
+	public boolean isLeaf() {
+		return true;
+	}
+}
@@ -0,0 +1,98 @@
+package com.github.cazayus.properties.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.github.cazayus.properties.engine.CeaRules;
+import com.github.cazayus.properties.engine.KeyOrdering;
+import com.github.cazayus.properties.engine.PropertiesText;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+
+/**
+ * What the {@link CeaSortedIndex} keeps of a properties file: the indexed {@link KeyOrdering}s in which it is CEA sorted
+ */
+public final class CeaFileSummary {
+	/**
+	 * Every file is indexed whatever the ordering of its project, so only the default ordering is checked while indexing <br>
+	 * The other orderings are checked per file, only in the projects selecting them.
+	 */
+	private static final KeyOrdering[] INDEXED_ORDERINGS = { KeyOrdering.PLAIN };
+
+	static final DataExternalizer<CeaFileSummary> EXTERNALIZER = new DataExternalizer<CeaFileSummary>() {
+		@Override
+		public void save(@NotNull DataOutput out, CeaFileSummary value) throws IOException {
+			DataInputOutputUtil.writeINT(out, value.sortedOrderings);
+		}
+
+		@Override
+		public CeaFileSummary read(@NotNull DataInput in) throws IOException {
+			return new CeaFileSummary(DataInputOutputUtil.readINT(in));
+		}
+	};
+
+	// One bit per ordinal of KeyOrdering
+	private final int sortedOrderings;
+
+	private CeaFileSummary(int sortedOrderings) {
+		this.sortedOrderings = sortedOrderings;
+	}
+
+	@NotNull
+	static CeaFileSummary of(@NotNull CharSequence text) {
+		PropertiesText propertiesText = PropertiesText.parse(text);
+		int sortedOrderings = 0;
+		for (KeyOrdering ordering : INDEXED_ORDERINGS) {
+			if (CeaRules.isCeaSorted(propertiesText.withOrdering(ordering))) {
+				sortedOrderings |= getMask(ordering);
+			}
+		}
+		return new CeaFileSummary(sortedOrderings);
+	}
+
+	static int getMask(@NotNull KeyOrdering ordering) {
+		return 1 << ordering.ordinal();
+	}
+
+	public static boolean isIndexed(@NotNull KeyOrdering ordering) {
+		for (KeyOrdering indexedOrdering : INDEXED_ORDERINGS) {
+			if (indexedOrdering == ordering) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param ordering an ordering for which {@link #isIndexed(KeyOrdering)}, the file is never sorted in the others
+	 */
+	public boolean isSorted(@NotNull KeyOrdering ordering) {
+		return (sortedOrderings & getMask(ordering)) != 0;
+	}
+
+	/**
+	 * @return the indexed orderings in which the file is CEA sorted, one bit per {@link KeyOrdering} ordinal
+	 */
+	public int getSortedOrderings() {
+		return sortedOrderings;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof CeaFileSummary)) {
+			return false;
+		}
+		return sortedOrderings == ((CeaFileSummary) o).sortedOrderings;
+	}
+
+	@Override
+	public int hashCode() {
+		return sortedOrderings;
+	}
+}
@@ -0,0 +1,120 @@
+package com.github.cazayus.properties.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.github.cazayus.properties.engine.KeyOrdering;
+import com.intellij.lang.properties.PropertiesFileType;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.DumbModeAccessType;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+
+/**
+ * Persistent index of the CEA sortedness of every properties file, computed from the file content while indexing <br>
+ * Each file has one entry: the mask of the {@link KeyOrdering}s in which it is sorted as key, so the unsorted files of a scope are a few lookups, <br>
+ * and its {@link CeaFileSummary} as value. Only the default ordering is checked while indexing, see {@link CeaFileSummary#isIndexed(KeyOrdering)}, <br>
+ * so changing the project ordering needs no reindexing. <br>
+ * Lookups of one file also work in dumb mode, on the data of the files that are up to date.
+ */
+public final class CeaSortedIndex extends FileBasedIndexExtension<Integer, CeaFileSummary> {
+	public static final ID<Integer, CeaFileSummary> NAME = ID.create("com.github.cazayus.properties.CeaSortedIndex");
+
+	@NotNull
+	@Override
+	public ID<Integer, CeaFileSummary> getName() {
+		return NAME;
+	}
+
+	@NotNull
+	@Override
+	public DataIndexer<Integer, CeaFileSummary, FileContent> getIndexer() {
+		return inputData -> {
+			CeaFileSummary summary = CeaFileSummary.of(inputData.getContentAsText());
+			return Collections.singletonMap(summary.getSortedOrderings(), summary);
+		};
+	}
+
+	@NotNull
+	@Override
+	public KeyDescriptor<Integer> getKeyDescriptor() {
+		return EnumeratorIntegerDescriptor.INSTANCE;
+	}
+
+	@NotNull
+	@Override
+	public DataExternalizer<CeaFileSummary> getValueExternalizer() {
+		return CeaFileSummary.EXTERNALIZER;
+	}
+
+	@Override
+	public int getVersion() {
+		return 4;
+	}
+
+	@NotNull
+	@Override
+	public FileBasedIndex.InputFilter getInputFilter() {
+		return new DefaultFileTypeSpecificInputFilter(PropertiesFileType.INSTANCE);
+	}
+
+	@Override
+	public boolean dependsOnFileContent() {
+		return true;
+	}
+
+	/**
+	 * @return the summary of the file, null when the index has nothing reliable for it, for instance an unsaved document during indexing
+	 */
+	@Nullable
+	public static CeaFileSummary getSummary(@NotNull Project project, @NotNull VirtualFile file) {
+		FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+		// In dumb mode the pending changes of unsaved documents are not indexed yet
+		if (FileDocumentManager.getInstance().isFileModified(file)) {
+			return null;
+		}
+		try {
+			Map<Integer, CeaFileSummary> data = fileBasedIndex.ignoreDumbMode(DumbModeAccessType.RELIABLE_DATA_ONLY,
+					() -> fileBasedIndex.getFileData(NAME, file, project));
+			return data.isEmpty() ? null : data.values().iterator().next();
+		} catch (IndexNotReadyException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Needs smart mode, the unsaved documents of the scope are indexed before the lookup
+	 *
+	 * @param ordering an ordering for which {@link CeaFileSummary#isIndexed(KeyOrdering)}
+	 * @return the properties files of the scope that are not CEA sorted in this ordering
+	 */
+	@NotNull
+	public static Collection<VirtualFile> getUnsortedFiles(@NotNull GlobalSearchScope scope, @NotNull KeyOrdering ordering) {
+		FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+		int orderingMask = CeaFileSummary.getMask(ordering);
+		List<VirtualFile> unsortedFiles = new ArrayList<>();
+		for (int sortedOrderings = 0; sortedOrderings < 1 << KeyOrdering.values().length; sortedOrderings++) {
+			if ((sortedOrderings & orderingMask) == 0) {
+				unsortedFiles.addAll(fileBasedIndex.getContainingFiles(NAME, sortedOrderings, scope));
+			}
+		}
+		return unsortedFiles;
+	}
+}
@@ -0,0 +1,163 @@
+package com.github.cazayus.properties.inspection;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.github.cazayus.properties.diagnostic.Phase;
+import com.github.cazayus.properties.diagnostic.PhaseTimer;
+import com.github.cazayus.properties.engine.BundleKeyRanks;
+import com.github.cazayus.properties.engine.CeaFormat;
+import com.github.cazayus.properties.engine.CeaReport;
+import com.github.cazayus.properties.engine.KeyOrdering;
+import com.github.cazayus.properties.engine.PropertiesText;
+import com.github.cazayus.properties.engine.SortEdits;
+import com.github.cazayus.properties.formatting.CEAPropertiesFormattingModelBuilder;
+import com.github.cazayus.properties.settings.CeaPropertiesSettings;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.lang.properties.ResourceBundle;
+import com.intellij.lang.properties.psi.PropertiesFile;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+
+/**
+ * Sorts one properties file right away, or every file of a resource bundle in a cancellable background task <br>
+ * For a bundle, the {@link PropertiesSortTask} computes the edits of all locale files in parallel, then applies them in one undoable write command. <br>
+ * Keys are sorted in the key ordering of the project {@link CeaPropertiesSettings}, properties are written in the code style of the file.
+ */
+final class CEAPropertiesSorterQuickFix implements LocalQuickFix {
+	private static final Logger LOG = Logger.getInstance(CEAPropertiesSorterQuickFix.class);
+	private static final String COMMAND_NAME = "Sort resource bundle files";
+	/**
+	 * Above this, the document gets one replacement spanning all the edits instead of one event and reparse range per edit
+	 */
+	private static final int MAX_SEPARATE_REPLACEMENTS = 64;
+
+	private final PropertiesFile[] myFilesToSort;
+
+	CEAPropertiesSorterQuickFix(PropertiesFile... toSort) {
+		myFilesToSort = toSort;
+	}
+
+	@NotNull
+	@Override
+	public String getFamilyName() {
+		return COMMAND_NAME;
+	}
+
+	@Override
+	public boolean startInWriteAction() {
+		return false;
+	}
+
+	@Override
+	public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+		if (myFilesToSort.length == 1) {
+			// A single file is cheap and the save action expects it to be sorted when the fix returns
+			PsiFile psiFile = myFilesToSort[0].getContainingFile();
+			WriteCommandAction.writeCommandAction(project, psiFile).withName(COMMAND_NAME).run(() -> sortPropertiesFile(psiFile, null, 1));
+			return;
+		}
+		new PropertiesSortTask(project, COMMAND_NAME, Arrays.asList(myFilesToSort)).queue();
+	}
+
+	/**
+	 * @return the resource bundle this fix sorts as a whole, null when it sorts a single file
+	 */
+	@Nullable
+	ResourceBundle getResourceBundle() {
+		return myFilesToSort.length > 1 ? myFilesToSort[0].getResourceBundle() : null;
+	}
+
+	/**
+	 * Only the properties outside the longest already sorted subsequence are moved, and only the separators and properties that differ <br>
+	 * from the sorted file are rewritten, so the undo record, the reparse and the VCS diff stay proportional to what was actually unsorted. <br>
+	 * The properties are written in the code style of the file while sorting, with the separators aligned on the final groups, <br>
+	 * so the document is written once and is not reformatted afterwards.
+	 *
+	 * @param computedSort the sort computed beforehand on the current document, null to compute it now
+	 * @param localeCount the number of files sorted together, for the metrics
+	 */
+	static void sortPropertiesFile(@NotNull PsiFile psiFile, @Nullable ComputedSort computedSort, int localeCount) {
+		PhaseTimer timer = PhaseTimer.start(Phase.QUICK_FIX);
+		PsiDocumentManager psiDocumentManager = PsiDocumentManager.getInstance(psiFile.getProject());
+		Document document = psiDocumentManager.getDocument(psiFile);
+		LOG.assertTrue(document != null);
+		psiDocumentManager.doPostponedOperationsAndUnblockDocument(document);
+		ComputedSort sort = computedSort != null ? computedSort : computeSort(psiFile, document);
+		applyReplacements(document, sort.replacements);
+		psiDocumentManager.commitDocument(document);
+		timer.stop(psiFile, sort.propertyCount, localeCount, !sort.replacements.isEmpty());
+	}
+
+	/**
+	 * Only reads the document and the settings, so the sorts of several files can be computed in parallel read actions
+	 */
+	@NotNull
+	static ComputedSort computeSort(@NotNull PsiFile psiFile, @NotNull Document document) {
+		UnsortedPropertiesFileInspection.AnalysedText analysedText = analyse(psiFile, document);
+		return computeSort(analysedText.getPropertiesText(), analysedText.getReport(), CEAPropertiesFormattingModelBuilder.getFormat(psiFile), null);
+	}
+
+	/**
+	 * @return the text the highlighting of the file analysed when the document has not changed since, else the document parsed now
+	 */
+	@NotNull
+	static UnsortedPropertiesFileInspection.AnalysedText analyse(@NotNull PsiFile psiFile, @NotNull Document document) {
+		UnsortedPropertiesFileInspection.AnalysedText analysedText = UnsortedPropertiesFileInspection.getCachedAnalysis(psiFile, document);
+		if (analysedText != null) {
+			return analysedText;
+		}
+		KeyOrdering ordering = CeaPropertiesSettings.getInstance(psiFile.getProject()).getOrdering();
+		PropertiesText propertiesText = PropertiesText.parse(document.getImmutableCharSequence(), ordering);
+		return new UnsortedPropertiesFileInspection.AnalysedText(propertiesText, CeaReport.analyse(propertiesText), document.getModificationStamp());
+	}
+
+	/**
+	 * Only reads the parsed text, so it needs no read action
+	 *
+	 * @param sortedIndexes the sorted indexes of the text when already known from the {@link BundleKeyRanks} of its bundle, null to sort it here
+	 */
+	@NotNull
+	static ComputedSort computeSort(@NotNull PropertiesText propertiesText, @NotNull CeaReport report, @NotNull CeaFormat format,
+			@Nullable int[] sortedIndexes) {
+		return new ComputedSort(SortEdits.compute(propertiesText, report, format, sortedIndexes), propertiesText.size());
+	}
+
+	private static void applyReplacements(Document document, List<SortEdits.Replacement> replacements) {
+		if (replacements.size() > MAX_SEPARATE_REPLACEMENTS) {
+			SortEdits.Replacement merged = SortEdits.merge(document.getImmutableCharSequence(), replacements);
+			document.replaceString(merged.getStart(), merged.getEnd(), merged.getText());
+			return;
+		}
+		// Applied from the end so the offsets of the remaining replacements stay valid
+		for (int i = replacements.size() - 1; i >= 0; i--) {
+			SortEdits.Replacement replacement = replacements.get(i);
+			document.replaceString(replacement.getStart(), replacement.getEnd(), replacement.getText());
+		}
+	}
+
+	/**
+	 * The edits sorting and formatting a document, empty when it is already CEA sorted
+	 */
+	static final class ComputedSort {
+		private final List<SortEdits.Replacement> replacements;
+		private final int propertyCount;
+
+		private ComputedSort(List<SortEdits.Replacement> replacements, int propertyCount) {
+			this.replacements = replacements;
+			this.propertyCount = propertyCount;
+		}
+
+		boolean isEmpty() {
+			return replacements.isEmpty();
+		}
+	}
+}
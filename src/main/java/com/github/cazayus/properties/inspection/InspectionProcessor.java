@@ -1,7 +1,13 @@
 package com.github.cazayus.properties.inspection;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import com.github.cazayus.properties.diagnostic.Phase;
+import com.github.cazayus.properties.diagnostic.PhaseTimer;
 import com.intellij.codeInspection.GlobalInspectionContext;
 import com.intellij.codeInspection.InspectionEngine;
 import com.intellij.codeInspection.InspectionManager;
@@ -9,49 +15,119 @@ import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.QuickFix;
 import com.intellij.codeInspection.ex.LocalInspectionToolWrapper;
-import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.lang.properties.ResourceBundle;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.IndexNotReadyException;
 import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
 
+/**
+ * Runs the inspection on a batch of files in a cancellable background read action, then applies the fixes in one write action on the UI thread <br>
+ * The write action only starts when a fix is needed, and the problems of a file are dropped if it was deleted or its document changed <br>
+ * during the analysis. The analysis expires with the project, and a new batch of the same files, saved again meanwhile, replaces it.
+ */
 public final class InspectionProcessor implements Runnable {
 	private final Project project;
-	private final PsiFile psiFile;
+	private final Collection<PsiFile> psiFiles;
 	private final LocalInspectionTool inspectionTool;
 
-	public InspectionProcessor(Project project, PsiFile psiFile, LocalInspectionTool inspectionTool) {
+	public InspectionProcessor(Project project, Collection<PsiFile> psiFiles, LocalInspectionTool inspectionTool) {
 		this.project = project;
-		this.psiFile = psiFile;
+		this.psiFiles = psiFiles;
 		this.inspectionTool = inspectionTool;
 	}
 
 	@Override
 	public void run() {
-		ApplicationManager.getApplication().invokeLater(() -> WriteCommandAction.writeCommandAction(project).run(() -> {
-			InspectionManager inspectionManager = InspectionManager.getInstance(project);
-			GlobalInspectionContext context = inspectionManager.createNewGlobalContext();
-			LocalInspectionToolWrapper toolWrapper = new LocalInspectionToolWrapper(inspectionTool);
+		ReadAction.nonBlocking(this::findProblems)
+				.withDocumentsCommitted(project)
+				.expireWhen(project::isDisposed)
+				.coalesceBy(InspectionProcessor.class, new HashSet<>(psiFiles))
+				.finishOnUiThread(ModalityState.NON_MODAL, this::applyFixes)
+				.submit(AppExecutorUtil.getAppExecutorService());
+	}
+
+	private List<Analysis> findProblems() {
+		InspectionManager inspectionManager = InspectionManager.getInstance(project);
+		GlobalInspectionContext context = inspectionManager.createNewGlobalContext();
+		LocalInspectionToolWrapper toolWrapper = new LocalInspectionToolWrapper(inspectionTool);
+		List<Analysis> analyses = new ArrayList<>();
+		for (PsiFile psiFile : psiFiles) {
+			ProgressManager.checkCanceled();
+			Document document = psiFile.isValid() ? PsiDocumentManager.getInstance(project).getDocument(psiFile) : null;
+			if (document == null) {
+				continue;
+			}
+			long modificationStamp = document.getModificationStamp();
+			PhaseTimer timer = PhaseTimer.start(Phase.INSPECTION_PROCESSOR);
 			List<ProblemDescriptor> problemDescriptors;
 			try {
 				problemDescriptors = InspectionEngine.runInspectionOnFile(psiFile, toolWrapper, context);
 			} catch (IndexNotReadyException exception) {
-				return;
+				timer.stop(psiFile, 0, 0, false);
+				return analyses;
+			}
+			timer.stop(psiFile, 0, 0, false);
+			if (!problemDescriptors.isEmpty()) {
+				analyses.add(new Analysis(psiFile, document, modificationStamp, problemDescriptors));
+			}
+		}
+		return analyses;
+	}
+
+	private void applyFixes(List<Analysis> analyses) {
+		List<Analysis> freshAnalyses = new ArrayList<>(analyses.size());
+		for (Analysis analysis : analyses) {
+			// A file deleted or changed since it was analysed is left to its next save
+			if (analysis.psiFile.isValid() && analysis.document.getModificationStamp() == analysis.modificationStamp) {
+				freshAnalyses.add(analysis);
 			}
-			for (ProblemDescriptor problemDescriptor : problemDescriptors) {
-				QuickFix<ProblemDescriptor>[] fixes = problemDescriptor.getFixes();
-				if (fixes != null) {
-					writeQuickFixes(problemDescriptor, fixes);
+		}
+		if (freshAnalyses.isEmpty()) {
+			return;
+		}
+		WriteCommandAction.writeCommandAction(project).run(() -> {
+			// The locales of an unsorted bundle saved together all offer the sort of the whole bundle, it is queued once
+			Set<ResourceBundle> sortedBundles = new HashSet<>();
+			for (Analysis analysis : freshAnalyses) {
+				PhaseTimer timer = PhaseTimer.start(Phase.INSPECTION_PROCESSOR_FIX);
+				for (ProblemDescriptor problemDescriptor : analysis.problemDescriptors) {
+					QuickFix<ProblemDescriptor>[] fixes = problemDescriptor.getFixes();
+					if (fixes != null) {
+						writeQuickFixes(problemDescriptor, fixes, sortedBundles);
+					}
 				}
+				timer.stop(analysis.psiFile, 0, 0, true);
 			}
-		}));
+		});
 	}
 
-	private void writeQuickFixes(ProblemDescriptor problemDescriptor, QuickFix<ProblemDescriptor>[] fixes) {
+	private void writeQuickFixes(ProblemDescriptor problemDescriptor, QuickFix<ProblemDescriptor>[] fixes, Set<? super ResourceBundle> sortedBundles) {
 		for (QuickFix<ProblemDescriptor> fix : fixes) {
-			if (fix != null) {
+			ResourceBundle resourceBundle = fix instanceof CEAPropertiesSorterQuickFix ? ((CEAPropertiesSorterQuickFix) fix).getResourceBundle() : null;
+			if (fix != null && (resourceBundle == null || sortedBundles.add(resourceBundle))) {
 				fix.applyFix(project, problemDescriptor);
 			}
 		}
 	}
+
+	private static final class Analysis {
+		private final PsiFile psiFile;
+		private final Document document;
+		private final long modificationStamp;
+		private final List<ProblemDescriptor> problemDescriptors;
+
+		private Analysis(PsiFile psiFile, Document document, long modificationStamp, List<ProblemDescriptor> problemDescriptors) {
+			this.psiFile = psiFile;
+			this.document = document;
+			this.modificationStamp = modificationStamp;
+			this.problemDescriptors = problemDescriptors;
+		}
+	}
 }
@@ -0,0 +1,113 @@
+package com.github.cazayus.properties.inspection;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.github.cazayus.properties.engine.CeaKey;
+import com.github.cazayus.properties.engine.CeaRules;
+import com.github.cazayus.properties.engine.KeyOrdering;
+import com.github.cazayus.properties.engine.PropertiesText;
+import com.intellij.lang.properties.parsing.PropertiesLexer;
+import com.intellij.lang.properties.parsing.PropertiesTokenTypes;
+import com.intellij.lexer.Lexer;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+
+/**
+ * Streaming CEA check over the tokens of the properties lexer, for files too large to build and walk their PSI tree <br>
+ * Only the previous key and its sort key are kept, and the gaps are resolved from the white space and comment tokens the same way <br>
+ * {@link UnsortedPropertiesFileInspection#isCeaSorted} resolves them from the PSI siblings, so both give the same verdict.
+ */
+final class LexerCeaChecker {
+	/**
+	 * Around 30 000 properties, below that the PSI of the file is usually already built by the highlighting
+	 */
+	static final int MIN_TEXT_LENGTH = 1024 * 1024;
+
+	private LexerCeaChecker() {
+	}
+
+	static boolean isCeaSorted(@NotNull CharSequence text, @NotNull KeyOrdering ordering) {
+		Lexer lexer = new PropertiesLexer();
+		lexer.start(text);
+		CharSequence previousKey = null;
+		Object previousSortKey = null;
+		long previousDescriptor = 0L;
+		boolean inProperty = false;
+		boolean hasPrevious = false;
+		boolean previousIsComment = false;
+		PropertiesText.Gap previousCommentGap = PropertiesText.Gap.OTHER;
+		// What separates the next token from the previous one
+		PropertiesText.Gap gap = PropertiesText.Gap.OTHER;
+		for (IElementType tokenType = lexer.getTokenType(); tokenType != null; lexer.advance(), tokenType = lexer.getTokenType()) {
+			int start = lexer.getTokenStart();
+			int end = lexer.getTokenEnd();
+			if (tokenType == TokenType.WHITE_SPACE) {
+				// White spaces inside a property stay on its line
+				if (inProperty && !contains(text, start, end, '\n')) {
+					continue;
+				}
+				inProperty = false;
+				gap = hasPrevious ? getGap(CeaRules.countLineReturns(text.subSequence(start, end)), previousIsComment, previousCommentGap)
+						: PropertiesText.Gap.OTHER;
+			} else if (tokenType == PropertiesTokenTypes.END_OF_LINE_COMMENT) {
+				inProperty = false;
+				hasPrevious = true;
+				previousIsComment = true;
+				previousCommentGap = gap;
+				gap = PropertiesText.Gap.OTHER;
+			} else if (tokenType == PropertiesTokenTypes.KEY_CHARACTERS && !inProperty) {
+				if (contains(text, start, end, '\n')) {
+					return false;
+				}
+				CharSequence rawKey = text.subSequence(start, end);
+				CharSequence key = CeaKey.hasEscape(rawKey) ? CeaRules.unescape(rawKey) : rawKey;
+				long descriptor = CeaKey.describe(key);
+				Object sortKey = ordering.createSortKey(key);
+				if (previousKey != null) {
+					boolean sameGroup = CeaKey.isSameGroup(previousKey, previousDescriptor, key, descriptor);
+					if (gap != (sameGroup ? PropertiesText.Gap.LINE : PropertiesText.Gap.BLANK_LINE) || ordering.compareSortKeys(previousSortKey, sortKey) > 0) {
+						return false;
+					}
+				}
+				previousKey = key;
+				previousSortKey = sortKey;
+				previousDescriptor = descriptor;
+				inProperty = true;
+				hasPrevious = true;
+				previousIsComment = false;
+				gap = PropertiesText.Gap.OTHER;
+			} else if (tokenType == PropertiesTokenTypes.KEY_VALUE_SEPARATOR || tokenType == PropertiesTokenTypes.VALUE_CHARACTERS) {
+				// A separator or a value outside of a property starts a property without key
+				if (!inProperty || contains(text, start, end, '\n')) {
+					return false;
+				}
+			} else if (!inProperty) {
+				hasPrevious = true;
+				previousIsComment = false;
+				gap = PropertiesText.Gap.OTHER;
+			}
+		}
+		return true;
+	}
+
+	// Same resolution as the PSI walk: after a comment, what is above the comment decides
+	private static PropertiesText.Gap getGap(int lineReturns, boolean previousIsComment, PropertiesText.Gap previousCommentGap) {
+		switch (lineReturns) {
+		case 1:
+			return previousIsComment ? previousCommentGap : PropertiesText.Gap.LINE;
+		case 2:
+			return previousIsComment ? PropertiesText.Gap.OTHER : PropertiesText.Gap.BLANK_LINE;
+		default:
+			return PropertiesText.Gap.OTHER;
+		}
+	}
+
+	private static boolean contains(CharSequence text, int start, int end, char c) {
+		for (int i = start; i < end; i++) {
+			if (text.charAt(i) == c) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,238 @@
+package com.github.cazayus.properties.inspection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.github.cazayus.properties.engine.BundleKeyRanks;
+import com.github.cazayus.properties.engine.CeaFormat;
+import com.github.cazayus.properties.engine.CeaReport;
+import com.github.cazayus.properties.engine.PropertiesText;
+import com.github.cazayus.properties.formatting.CEAPropertiesFormattingModelBuilder;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.lang.properties.PropertiesImplUtil;
+import com.intellij.lang.properties.ResourceBundle;
+import com.intellij.lang.properties.psi.PropertiesFile;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+
+/**
+ * Sorts properties files in a cancellable background task, by chunks of about {@value #CHUNK_SIZE} files made of whole resource bundles <br>
+ * The edits of a chunk are computed in parallel in non-blocking read actions, which give way to write actions, then applied in one undoable <br>
+ * write command, so a whole resource bundle is one undo step while sorting thousands of files never holds the write lock for long, <br>
+ * nor makes it wait, and can be cancelled between chunks. <br>
+ * The files of a resource bundle share one {@link BundleKeyRanks}, so their keys are sorted once for all the locales.
+ */
+public final class PropertiesSortTask extends Task.Backgroundable {
+	private static final Logger LOG = Logger.getInstance(PropertiesSortTask.class);
+	private static final int CHUNK_SIZE = 100;
+
+	private final List<PropertiesFile> filesToSort;
+
+	public PropertiesSortTask(@NotNull Project project, @NotNull String title, @NotNull Collection<? extends PropertiesFile> filesToSort) {
+		super(project, title, true);
+		this.filesToSort = new ArrayList<>(filesToSort);
+	}
+
+	/**
+	 * Sorts the files under a modal progress, for callers that must not go on before the files are sorted <br>
+	 * The edits are still computed in background threads, the write commands run on the event dispatch thread in the modality of the progress.
+	 *
+	 * @return false when the sort was cancelled, the chunks sorted before stay sorted
+	 */
+	public boolean runModal() {
+		return ProgressManager.getInstance().runProcessWithProgressSynchronously(() -> run(ProgressManager.getInstance().getProgressIndicator()),
+				getTitle(), true, myProject);
+	}
+
+	@Override
+	public void run(@NotNull ProgressIndicator indicator) {
+		indicator.setIndeterminate(false);
+		List<List<PsiFile>> chunks = ReadAction.nonBlocking(() -> chunkByBundle(filesToSort)).executeSynchronously();
+		int fileCount = chunks.stream().mapToInt(List::size).sum();
+		AtomicInteger doneCount = new AtomicInteger();
+		for (List<PsiFile> chunk : chunks) {
+			indicator.checkCanceled();
+			List<ParsedFile> parsedFiles = new CopyOnWriteArrayList<>();
+			JobLauncher.getInstance().invokeConcurrentlyUnderProgress(chunk, indicator, psiFile -> {
+				ParsedFile parsedFile = ReadAction.nonBlocking(() -> parse(psiFile)).executeSynchronously();
+				if (parsedFile != null) {
+					parsedFiles.add(parsedFile);
+				} else {
+					indicator.setFraction((double) doneCount.incrementAndGet() / fileCount);
+				}
+				return true;
+			});
+			shareBundleSorts(parsedFiles, indicator);
+			Map<PsiFile, ComputedEdits> computedEdits = new ConcurrentHashMap<>();
+			JobLauncher.getInstance().invokeConcurrentlyUnderProgress(parsedFiles, indicator, parsedFile -> {
+				computeEdits(parsedFile, computedEdits);
+				indicator.setFraction((double) doneCount.incrementAndGet() / fileCount);
+				return true;
+			});
+			if (!computedEdits.isEmpty()) {
+				ApplicationManager.getApplication().invokeAndWait(() -> applyEdits(computedEdits), ModalityState.defaultModalityState());
+			}
+		}
+	}
+
+	/**
+	 * A resource bundle is never split, its files are written by one command and sorted on one key ranking, so a chunk has more files <br>
+	 * than {@value #CHUNK_SIZE} only when a single bundle does
+	 */
+	private static List<List<PsiFile>> chunkByBundle(List<PropertiesFile> files) {
+		Map<ResourceBundle, List<PsiFile>> bundleFiles = new LinkedHashMap<>();
+		for (PropertiesFile file : files) {
+			if (file.getContainingFile().isValid()) {
+				bundleFiles.computeIfAbsent(file.getResourceBundle(), resourceBundle -> new ArrayList<>()).add(file.getContainingFile());
+			}
+		}
+		List<List<PsiFile>> chunks = new ArrayList<>();
+		List<PsiFile> chunk = new ArrayList<>();
+		for (List<PsiFile> psiFiles : bundleFiles.values()) {
+			if (!chunk.isEmpty() && chunk.size() + psiFiles.size() > CHUNK_SIZE) {
+				chunks.add(chunk);
+				chunk = new ArrayList<>();
+			}
+			chunk.addAll(psiFiles);
+		}
+		if (!chunk.isEmpty()) {
+			chunks.add(chunk);
+		}
+		return chunks;
+	}
+
+	// Files that are already sorted, or that no sort can make sorted, are left alone
+	@Nullable
+	private static ParsedFile parse(PsiFile psiFile) {
+		Document document = psiFile.isValid() ? PsiDocumentManager.getInstance(psiFile.getProject()).getDocument(psiFile) : null;
+		PropertiesFile propertiesFile = PropertiesImplUtil.getPropertiesFile(psiFile);
+		if (document == null || propertiesFile == null) {
+			return null;
+		}
+		long modificationStamp = document.getModificationStamp();
+		UnsortedPropertiesFileInspection.AnalysedText analysedText = CEAPropertiesSorterQuickFix.analyse(psiFile, document);
+		if (analysedText.getReport().isEmpty() || !analysedText.getReport().isSortable()) {
+			return null;
+		}
+		ResourceBundle resourceBundle = propertiesFile.getResourceBundle();
+		return new ParsedFile(psiFile, document, modificationStamp, analysedText.getPropertiesText(), analysedText.getReport(),
+				CEAPropertiesFormattingModelBuilder.getFormat(psiFile), resourceBundle, resourceBundle.getPropertiesFiles().size());
+	}
+
+	/**
+	 * The locales of a bundle mostly share their keys, so the files of a bundle whose keys must move are sorted together by one {@link BundleKeyRanks}
+	 */
+	private static void shareBundleSorts(List<ParsedFile> parsedFiles, ProgressIndicator indicator) {
+		Map<ResourceBundle, List<ParsedFile>> bundleFiles = new LinkedHashMap<>();
+		for (ParsedFile parsedFile : parsedFiles) {
+			if (parsedFile.report.isOrderBroken()) {
+				bundleFiles.computeIfAbsent(parsedFile.resourceBundle, resourceBundle -> new ArrayList<>()).add(parsedFile);
+			}
+		}
+		List<List<ParsedFile>> sharedSorts = new ArrayList<>();
+		for (List<ParsedFile> files : bundleFiles.values()) {
+			if (files.size() > 1) {
+				sharedSorts.add(files);
+			}
+		}
+		JobLauncher.getInstance().invokeConcurrentlyUnderProgress(sharedSorts, indicator, files -> {
+			List<PropertiesText> locales = new ArrayList<>(files.size());
+			for (ParsedFile file : files) {
+				locales.add(file.propertiesText);
+			}
+			BundleKeyRanks keyRanks = BundleKeyRanks.build(locales);
+			for (int locale = 0; locale < files.size(); locale++) {
+				files.get(locale).sortedIndexes = keyRanks.sortedIndexes(locale);
+			}
+			return true;
+		});
+	}
+
+	private static void computeEdits(ParsedFile parsedFile, Map<? super PsiFile, ? super ComputedEdits> computedEdits) {
+		CEAPropertiesSorterQuickFix.ComputedSort sort = CEAPropertiesSorterQuickFix.computeSort(parsedFile.propertiesText, parsedFile.report,
+				parsedFile.format, parsedFile.sortedIndexes);
+		if (!sort.isEmpty()) {
+			computedEdits.put(parsedFile.psiFile, new ComputedEdits(parsedFile.document, parsedFile.modificationStamp, sort, parsedFile.localeCount));
+		}
+	}
+
+	private void applyEdits(Map<PsiFile, ComputedEdits> computedEdits) {
+		if (myProject.isDisposed()) {
+			return;
+		}
+		PsiFile[] psiFiles = computedEdits.keySet().toArray(PsiFile.EMPTY_ARRAY);
+		WriteCommandAction.writeCommandAction(myProject, psiFiles).withName(getTitle()).run(() -> {
+			for (PsiFile psiFile : psiFiles) {
+				ComputedEdits edits = computedEdits.get(psiFile);
+				if (!psiFile.isValid()) {
+					continue;
+				}
+				try {
+					// Edits computed on a document that changed since are computed again
+					boolean fresh = edits.document.getModificationStamp() == edits.modificationStamp;
+					CEAPropertiesSorterQuickFix.sortPropertiesFile(psiFile, fresh ? edits.sort : null, edits.localeCount);
+				} catch (RuntimeException e) {
+					LOG.error(e.getMessage(), e);
+				}
+			}
+		});
+	}
+
+	private static final class ParsedFile {
+		private final PsiFile psiFile;
+		private final Document document;
+		private final long modificationStamp;
+		private final PropertiesText propertiesText;
+		private final CeaReport report;
+		private final CeaFormat format;
+		private final ResourceBundle resourceBundle;
+		private final int localeCount;
+		// Set when the file is sorted with the other locales of its bundle
+		private int[] sortedIndexes;
+
+		private ParsedFile(PsiFile psiFile, Document document, long modificationStamp, PropertiesText propertiesText, CeaReport report, CeaFormat format,
+				ResourceBundle resourceBundle, int localeCount) {
+			this.psiFile = psiFile;
+			this.document = document;
+			this.modificationStamp = modificationStamp;
+			this.propertiesText = propertiesText;
+			this.report = report;
+			this.format = format;
+			this.resourceBundle = resourceBundle;
+			this.localeCount = localeCount;
+		}
+	}
+
+	private static final class ComputedEdits {
+		private final Document document;
+		private final long modificationStamp;
+		private final CEAPropertiesSorterQuickFix.ComputedSort sort;
+		private final int localeCount;
+
+		private ComputedEdits(Document document, long modificationStamp, CEAPropertiesSorterQuickFix.ComputedSort sort, int localeCount) {
+			this.document = document;
+			this.modificationStamp = modificationStamp;
+			this.sort = sort;
+			this.localeCount = localeCount;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package com.github.cazayus.properties.inspection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.lang.properties.PropertiesImplUtil;
+import com.intellij.lang.properties.psi.PropertiesFile;
+import com.intellij.lang.properties.psi.impl.PropertiesFileImpl;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+
+/**
+ * Finds the files the inspection reports as unsorted among some properties files and the other locales of their resource bundles <br>
+ * Each file is checked once, in parallel read actions, with {@link UnsortedPropertiesFileInspection#isCeaSortedIndexed(PropertiesFile)}: <br>
+ * unchanged files are answered by the index, the others are checked and their result cached on the file. <br>
+ * The read actions are non-blocking, a write action cancels them and they start again after it, so typing never waits for a check.
+ */
+public final class UnsortedBundleFiles {
+	private UnsortedBundleFiles() {
+	}
+
+	/**
+	 * To call from a background thread
+	 */
+	@NotNull
+	public static List<PropertiesFile> find(@NotNull Project project, @NotNull Collection<VirtualFile> files, @NotNull ProgressIndicator indicator) {
+		List<PropertiesFile> filesToCheck = ReadAction.nonBlocking(() -> {
+			Set<PropertiesFile> bundleFiles = new LinkedHashSet<>();
+			for (VirtualFile file : files) {
+				PsiFile psiFile = file.isValid() && !project.isDisposed() ? PsiManager.getInstance(project).findFile(file) : null;
+				PropertiesFile propertiesFile = psiFile != null ? PropertiesImplUtil.getPropertiesFile(psiFile) : null;
+				if (propertiesFile instanceof PropertiesFileImpl) {
+					bundleFiles.addAll(propertiesFile.getResourceBundle().getPropertiesFiles());
+				}
+			}
+			return new ArrayList<>(bundleFiles);
+		}).executeSynchronously();
+		List<PropertiesFile> unsortedFiles = new CopyOnWriteArrayList<>();
+		JobLauncher.getInstance().invokeConcurrentlyUnderProgress(filesToCheck, indicator, file -> {
+			boolean unsorted = ReadAction.nonBlocking(() -> {
+				boolean checkable = file instanceof PropertiesFileImpl && file.getContainingFile().isValid();
+				return checkable && !UnsortedPropertiesFileInspection.isCeaSortedIndexed(file);
+			}).executeSynchronously();
+			if (unsorted) {
+				unsortedFiles.add(file);
+			}
+			return true;
+		});
+		return new ArrayList<>(unsortedFiles);
+	}
+}
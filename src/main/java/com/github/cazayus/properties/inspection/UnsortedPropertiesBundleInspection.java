@@ -0,0 +1,148 @@
+package com.github.cazayus.properties.inspection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.github.cazayus.properties.diagnostic.Phase;
+import com.github.cazayus.properties.diagnostic.PhaseTimer;
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.GlobalInspectionContext;
+import com.intellij.codeInspection.GlobalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemDescriptionsProcessor;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.lang.properties.PropertiesFileType;
+import com.intellij.lang.properties.PropertiesImplUtil;
+import com.intellij.lang.properties.ResourceBundle;
+import com.intellij.lang.properties.psi.PropertiesFile;
+import com.intellij.lang.properties.psi.impl.PropertiesFileImpl;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+
+/**
+ * Inspect Code counterpart of {@link UnsortedPropertiesFileInspection}, which reports each resource bundle once instead of once per locale <br>
+ * The properties files of the scope are grouped by resource bundle and every file of these bundles is checked once, in parallel, by <br>
+ * {@link UnsortedBundleFiles}. A bundle with a single unsorted file gets the detailed problem of that file, a bundle with several unsorted <br>
+ * files gets one problem on one of its files in the scope, so the cost and the report grow with the number of files, not of locales squared.
+ */
+public final class UnsortedPropertiesBundleInspection extends GlobalInspectionTool {
+	static final String SHORT_NAME = "CeaUnsortedPropertiesBundle";
+
+	@Override
+	public boolean isGraphNeeded() {
+		return false;
+	}
+
+	// The files are checked in parallel read actions, not in the single read action of the inspection
+	@Override
+	public boolean isReadActionNeeded() {
+		return false;
+	}
+
+	@Override
+	public void runInspection(@NotNull AnalysisScope scope, @NotNull InspectionManager manager, @NotNull GlobalInspectionContext globalContext,
+			@NotNull ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+		PhaseTimer timer = PhaseTimer.start(Phase.BATCH_INSPECTION);
+		Project project = globalContext.getProject();
+		ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+		if (indicator == null) {
+			indicator = new EmptyProgressIndicator();
+		}
+		List<VirtualFile> scopeFiles = ReadAction.compute(() -> {
+			List<VirtualFile> files = new ArrayList<>();
+			for (VirtualFile file : FileTypeIndex.getFiles(PropertiesFileType.INSTANCE, GlobalSearchScope.projectScope(project))) {
+				if (scope.contains(file)) {
+					files.add(file);
+				}
+			}
+			return files;
+		});
+		List<PropertiesFile> unsortedFiles = UnsortedBundleFiles.find(project, scopeFiles, indicator);
+		Collection<UnsortedBundle> unsortedBundles = ReadAction.compute(() -> groupByBundle(project, scopeFiles, unsortedFiles));
+
+		Map<PsiFile, ProblemDescriptor[]> problems = new ConcurrentHashMap<>();
+		JobLauncher.getInstance().invokeConcurrentlyUnderProgress(new ArrayList<>(unsortedBundles), indicator, unsortedBundle -> {
+			ReadAction.run(() -> {
+				if (unsortedBundle.reportedFile.isValid()) {
+					ProblemsHolder holder = new ProblemsHolder(manager, unsortedBundle.reportedFile, false);
+					unsortedBundle.register(holder);
+					problems.put(unsortedBundle.reportedFile, holder.getResultsArray());
+				}
+			});
+			return true;
+		});
+		ReadAction.run(() -> problems.forEach((psiFile, descriptors) -> {
+			if (psiFile.isValid()) {
+				problemDescriptionsProcessor.addProblemElement(globalContext.getRefManager().getReference(psiFile), descriptors);
+			}
+		}));
+		timer.stop((VirtualFile) null, 0, scopeFiles.size(), false);
+	}
+
+	private static Collection<UnsortedBundle> groupByBundle(Project project, List<VirtualFile> scopeFiles, List<PropertiesFile> unsortedFiles) {
+		Map<ResourceBundle, UnsortedBundle> unsortedBundles = new LinkedHashMap<>();
+		for (PropertiesFile unsortedFile : unsortedFiles) {
+			if (unsortedFile.getContainingFile().isValid()) {
+				unsortedBundles.computeIfAbsent(unsortedFile.getResourceBundle(), UnsortedBundle::new).unsortedFiles.add(unsortedFile);
+			}
+		}
+		// Problems are only reported on files of the scope, an unsorted file outside of it shows as a problem of its bundle
+		for (VirtualFile file : scopeFiles) {
+			PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+			PropertiesFile propertiesFile = psiFile != null ? PropertiesImplUtil.getPropertiesFile(psiFile) : null;
+			UnsortedBundle unsortedBundle = propertiesFile instanceof PropertiesFileImpl ? unsortedBundles.get(propertiesFile.getResourceBundle()) : null;
+			if (unsortedBundle == null || unsortedBundle.reportedFileUnsorted) {
+				continue;
+			}
+			// The first unsorted file of the scope, else its first file
+			boolean unsorted = unsortedBundle.unsortedFiles.contains(propertiesFile);
+			if (unsortedBundle.reportedFile == null || unsorted) {
+				unsortedBundle.reportedFile = psiFile;
+				unsortedBundle.reportedFileUnsorted = unsorted;
+			}
+		}
+		List<UnsortedBundle> reportedBundles = new ArrayList<>(unsortedBundles.size());
+		for (UnsortedBundle unsortedBundle : unsortedBundles.values()) {
+			if (unsortedBundle.reportedFile != null) {
+				reportedBundles.add(unsortedBundle);
+			}
+		}
+		return reportedBundles;
+	}
+
+	private static final class UnsortedBundle {
+		private final ResourceBundle resourceBundle;
+		private final List<PropertiesFile> unsortedFiles = new ArrayList<>();
+		private PsiFile reportedFile;
+		private boolean reportedFileUnsorted;
+
+		private UnsortedBundle(ResourceBundle resourceBundle) {
+			this.resourceBundle = resourceBundle;
+		}
+
+		private void register(ProblemsHolder holder) {
+			PropertiesFile propertiesFile = PropertiesImplUtil.getPropertiesFile(reportedFile);
+			if (unsortedFiles.size() == 1 && reportedFileUnsorted && propertiesFile != null) {
+				UnsortedPropertiesFileInspection.registerUnsortedFile(holder, reportedFile, propertiesFile);
+			} else {
+				UnsortedPropertiesFileInspection.registerUnsortedBundle(holder, reportedFile, resourceBundle);
+			}
+		}
+	}
+}
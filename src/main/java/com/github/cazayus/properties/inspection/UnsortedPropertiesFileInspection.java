@@ -15,45 +15,66 @@
  */
 package com.github.cazayus.properties.inspection;
 
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import com.intellij.codeInsight.actions.ReformatCodeProcessor;
+import com.github.cazayus.properties.diagnostic.Phase;
+import com.github.cazayus.properties.diagnostic.PhaseTimer;
+import com.github.cazayus.properties.engine.CeaKey;
+import com.github.cazayus.properties.engine.CeaReport;
+import com.github.cazayus.properties.engine.CeaRules;
+import com.github.cazayus.properties.engine.KeyOrdering;
+import com.github.cazayus.properties.engine.PropertiesText;
+import com.github.cazayus.properties.index.CeaFileSummary;
+import com.github.cazayus.properties.index.CeaSortedIndex;
+import com.github.cazayus.properties.settings.CeaPropertiesSettings;
 import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.codeInspection.LocalQuickFix;
-import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.PairedUnfairLocalInspectionTool;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.lang.ASTNode;
 import com.intellij.lang.properties.IProperty;
 import com.intellij.lang.properties.PropertiesImplUtil;
 import com.intellij.lang.properties.ResourceBundle;
-import com.intellij.lang.properties.psi.PropertiesElementFactory;
+import com.intellij.lang.properties.parsing.PropertiesTokenTypes;
 import com.intellij.lang.properties.psi.PropertiesFile;
-import com.intellij.lang.properties.psi.PropertiesList;
-import com.intellij.lang.properties.psi.PropertyKeyValueFormat;
-import com.intellij.lang.properties.psi.codeStyle.PropertiesCodeStyleSettings;
+import com.intellij.lang.properties.psi.Property;
 import com.intellij.lang.properties.psi.impl.PropertiesFileImpl;
-import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Comparing;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 
 /**
+ * Dumb aware: the other files of the resource bundle are looked up in the {@link CeaSortedIndex}, which answers during indexing too. <br>
+ * Keys are compared in the {@link KeyOrdering} of the project {@link CeaPropertiesSettings}. <br>
+ * Inspect Code runs {@link UnsortedPropertiesBundleInspection} instead, which checks each resource bundle once.
+ *
  * @author Dmitry Batkovich
  */
-public final class UnsortedPropertiesFileInspection extends LocalInspectionTool {
-	static final String LINE_SEPARATOR = "\n";
-	static final String TWO_LINE_SEPARATOR = LINE_SEPARATOR + LINE_SEPARATOR;
-	static final Logger LOG = Logger.getInstance(UnsortedPropertiesFileInspection.class);
+public final class UnsortedPropertiesFileInspection extends LocalInspectionTool implements PairedUnfairLocalInspectionTool, DumbAware {
+	private static final Key<CachedValue<Boolean>> CEA_SORTED_KEY = Key.create("cea.sorted");
+	private static final Key<CachedValue<AnalysedText>> CEA_REPORT_KEY = Key.create("cea.report");
 	private static final String MESSAGE_TEMPLATE_WHOLE_RESOURCE_BUNDLE = "Property keys of resource bundle '%s' aren't CEA sorted";
 
+	@NotNull
+	@Override
+	public String getInspectionForBatchShortName() {
+		return UnsortedPropertiesBundleInspection.SHORT_NAME;
+	}
+
 	@NotNull
 	@Override
 	public PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
@@ -64,232 +85,214 @@ public final class UnsortedPropertiesFileInspection extends LocalInspectionTool
 				if (!(propertiesFile instanceof PropertiesFileImpl)) {
 					return;
 				}
+				PhaseTimer timer = PhaseTimer.start(Phase.INSPECTION);
 				ResourceBundle resourceBundle = propertiesFile.getResourceBundle();
-				String resourceBundleBaseName = resourceBundle.getBaseName();
+				List<PropertiesFile> allFiles = resourceBundle.getPropertiesFiles();
 				if (!isResourceBundleAlphaSortedExceptOneFile(resourceBundle, propertiesFile)) {
-					List<PropertiesFile> allFiles = resourceBundle.getPropertiesFiles();
-					holder.registerProblem(file, String.format(MESSAGE_TEMPLATE_WHOLE_RESOURCE_BUNDLE, resourceBundleBaseName),
-							ProblemHighlightType.GENERIC_ERROR_OR_WARNING, new CEAPropertiesSorterQuickFix(allFiles.toArray(new PropertiesFile[0])));
-					return;
-				}
-				if (!isCeaSorted(propertiesFile)) {
-					holder.registerProblem(file, "Properties file is CEA unsorted", ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
-							new CEAPropertiesSorterQuickFix(propertiesFile));
+					registerUnsortedBundle(holder, file, resourceBundle);
+				} else if (!isCeaSortedCached(propertiesFile)) {
+					registerUnsortedFile(holder, file, propertiesFile);
 				}
+				// Only counted for a recording, and never for a very large file whose PSI tree the check avoided
+				boolean countProperties = timer.isEventEnabled() && file.getTextLength() < LexerCeaChecker.MIN_TEXT_LENGTH;
+				int propertyCount = countProperties ? propertiesFile.getProperties().size() : 0;
+				timer.stop(file, propertyCount, allFiles.size(), false);
 			}
 		};
 	}
 
+	static void registerUnsortedBundle(@NotNull ProblemsHolder holder, @NotNull PsiFile file, @NotNull ResourceBundle resourceBundle) {
+		PropertiesFile[] allFiles = resourceBundle.getPropertiesFiles().toArray(new PropertiesFile[0]);
+		holder.registerProblem(file, String.format(MESSAGE_TEMPLATE_WHOLE_RESOURCE_BUNDLE, resourceBundle.getBaseName()),
+				ProblemHighlightType.GENERIC_ERROR_OR_WARNING, new CEAPropertiesSorterQuickFix(allFiles));
+	}
+
+	/**
+	 * The report is only built for an unsorted file, to point at its first broken rule instead of the whole file <br>
+	 * A file with a property continuing on several lines stays unsorted whatever the sort does, so it gets no sort fix, nor a sort on save.
+	 */
+	static void registerUnsortedFile(@NotNull ProblemsHolder holder, @NotNull PsiFile file, @NotNull PropertiesFile propertiesFile) {
+		AnalysedText analysedText = analyseCached(file);
+		PropertiesText propertiesText = analysedText.getPropertiesText();
+		CeaReport report = analysedText.getReport();
+		PsiElement element = null;
+		String message = "Properties file is CEA unsorted";
+		if (!report.isEmpty()) {
+			CeaReport.Violation violation = report.getViolations().get(0);
+			element = PsiTreeUtil.getParentOfType(file.findElementAt(propertiesText.getKeyStart(violation.getIndex())), Property.class, false);
+			message += ": " + describe(propertiesText, violation);
+			if (report.getViolations().size() > 1) {
+				message += " (" + report.getViolations().size() + " problems)";
+			}
+		}
+		LocalQuickFix[] fixes = report.isSortable() ? new LocalQuickFix[] { new CEAPropertiesSorterQuickFix(propertiesFile) } : LocalQuickFix.EMPTY_ARRAY;
+		holder.registerProblem(element != null ? element : file, message, ProblemHighlightType.GENERIC_ERROR_OR_WARNING, fixes);
+	}
+
+	private static String describe(PropertiesText propertiesText, CeaReport.Violation violation) {
+		int index = violation.getIndex();
+		String key = propertiesText.getKey(index);
+		String previousKey = index > 0 ? propertiesText.getKey(index - 1) : null;
+		switch (violation.getKind()) {
+		case GROUP_ORDER:
+			return "'" + key + "' should come before '" + previousKey + "' in its group";
+		case GROUP_BOUNDARY:
+			return "'" + key + "' should come before the group of '" + previousKey + "'";
+		case UNEXPECTED_BLANK_LINE:
+			return "'" + key + "' should be on the line after '" + previousKey + "'";
+		case MISSING_BLANK_LINE:
+			return "'" + key + "' should be separated from '" + previousKey + "' by one blank line";
+		case MULTI_LINE:
+			return "'" + key + "' spans several lines, which no sort fixes";
+		default:
+			return "property without key";
+		}
+	}
+
+	// The other files that no sort can fix are reported on their own, sorting the bundle again and again would not change them
 	static boolean isResourceBundleAlphaSortedExceptOneFile(@NotNull ResourceBundle resourceBundle, @NotNull PropertiesFile exceptedFile) {
 		for (PropertiesFile file : resourceBundle.getPropertiesFiles()) {
 			if (!(file instanceof PropertiesFileImpl)) {
 				return true;
 			}
-			if (!file.equals(exceptedFile) && !isCeaSorted(file)) {
+			if (!file.equals(exceptedFile) && !isCeaSortedIndexed(file) && analyseCached(file.getContainingFile()).getReport().isSortable()) {
 				return false;
 			}
 		}
 		return true;
 	}
 
-	static String getFirstKeyPart(@NotNull String fullKey) {
-		return fullKey.substring(0, fullKey.indexOf('.'));
+	/**
+	 * Same as {@link #isCeaSortedCached(PropertiesFile)} but read from the index when it is up to date for the file and has the ordering <br>
+	 * of the project, so its PSI is not built
+	 */
+	public static boolean isCeaSortedIndexed(@NotNull PropertiesFile propertiesFile) {
+		PsiFile psiFile = propertiesFile.getContainingFile();
+		VirtualFile file = psiFile.getVirtualFile();
+		KeyOrdering ordering = CeaPropertiesSettings.getInstance(psiFile.getProject()).getOrdering();
+		CeaFileSummary summary = file != null && CeaFileSummary.isIndexed(ordering) ? CeaSortedIndex.getSummary(psiFile.getProject(), file) : null;
+		return summary != null ? summary.isSorted(ordering) : isCeaSortedCached(propertiesFile);
 	}
 
-	// This method checks if we have a blank line between us and the previous property
-	private static boolean psiElementIsAfterABlankLine(@NotNull PsiElement psiElement) {
-		PsiElement previousWhiteSpace = psiElement.getPrevSibling();
-		switch (previousWhiteSpace.getText()) {
-		case LINE_SEPARATOR:
-			if (previousWhiteSpace.getPrevSibling() instanceof PsiComment) {
-				return psiElementIsAfterABlankLine(previousWhiteSpace.getPrevSibling());
-			} else {
-				// We are after a property
-				return false;
+	/**
+	 * Same as {@link #isCeaSorted(PropertiesFile, KeyOrdering)} but the result is kept on the file until it or the key ordering is modified <br>
+	 * Highlighting one file of a resource bundle then only re-checks that file, the other locales are simple lookups. <br>
+	 * Very large files are checked on their lexer tokens by {@link LexerCeaChecker}, without building their PSI tree.
+	 */
+	static boolean isCeaSortedCached(@NotNull PropertiesFile propertiesFile) {
+		PsiFile psiFile = propertiesFile.getContainingFile();
+		return CachedValuesManager.getCachedValue(psiFile, CEA_SORTED_KEY, () -> {
+			CeaPropertiesSettings settings = CeaPropertiesSettings.getInstance(psiFile.getProject());
+			CharSequence text = psiFile.getViewProvider().getContents();
+			if (text.length() >= LexerCeaChecker.MIN_TEXT_LENGTH) {
+				return CachedValueProvider.Result.create(LexerCeaChecker.isCeaSorted(text, settings.getOrdering()), psiFile, settings);
 			}
-		case TWO_LINE_SEPARATOR:
-			return !(previousWhiteSpace.getPrevSibling() instanceof PsiComment);
-		default:
-			return false;
-		}
+			PropertiesFile file = PropertiesImplUtil.getPropertiesFile(psiFile);
+			return CachedValueProvider.Result.create(file != null && isCeaSorted(file, settings.getOrdering()), psiFile, settings);
+		});
 	}
 
-	// This method checks if we have a simple line return between us and the previous property
-	private static boolean psiElementIsAfterAProperty(@NotNull PsiElement psiElement) {
+	/**
+	 * The text of the file parsed in the key ordering of the project and its report, kept on the file until it or the key ordering is modified <br>
+	 * Only built for unsorted files, so every highlighting pass and the quick fix of such a file share one parse and analysis.
+	 */
+	@NotNull
+	static AnalysedText analyseCached(@NotNull PsiFile psiFile) {
+		return CachedValuesManager.getCachedValue(psiFile, CEA_REPORT_KEY, () -> {
+			CeaPropertiesSettings settings = CeaPropertiesSettings.getInstance(psiFile.getProject());
+			PsiDocumentManager psiDocumentManager = PsiDocumentManager.getInstance(psiFile.getProject());
+			Document document = psiDocumentManager.getCachedDocument(psiFile);
+			// The PSI text is the document text only once its changes are committed
+			long documentStamp = document != null && psiDocumentManager.isCommitted(document) ? document.getModificationStamp() : -1L;
+			PropertiesText propertiesText = PropertiesText.parse(psiFile.getViewProvider().getContents(), settings.getOrdering());
+			AnalysedText analysedText = new AnalysedText(propertiesText, CeaReport.analyse(propertiesText), documentStamp);
+			return CachedValueProvider.Result.create(analysedText, psiFile, settings);
+		});
+	}
+
+	/**
+	 * @return the text kept by {@link #analyseCached(PsiFile)} when it is up to date and was parsed from this very state of the document, else null
+	 */
+	@Nullable
+	static AnalysedText getCachedAnalysis(@NotNull PsiFile psiFile, @NotNull Document document) {
+		CachedValue<AnalysedText> cachedValue = psiFile.getUserData(CEA_REPORT_KEY);
+		AnalysedText analysedText = cachedValue != null && cachedValue.hasUpToDateValue() ? cachedValue.getValue() : null;
+		return analysedText != null && analysedText.documentStamp == document.getModificationStamp() ? analysedText : null;
+	}
+
+	// This method resolves what separates us from the previous property, walking back over the comments directly above us
+	private static PropertiesText.Gap getGap(@NotNull PsiElement psiElement) {
 		PsiElement previousWhiteSpace = psiElement.getPrevSibling();
-		if (previousWhiteSpace.getText().equals(LINE_SEPARATOR)) {
-			if (previousWhiteSpace.getPrevSibling() instanceof PsiComment) {
-				return psiElementIsAfterAProperty(previousWhiteSpace.getPrevSibling());
-			} else {
-				// We are after a property
-				return true;
-			}
-		} else {
-			return false;
+		if (previousWhiteSpace == null) {
+			return PropertiesText.Gap.OTHER;
+		}
+		PsiElement previous = previousWhiteSpace.getPrevSibling();
+		switch (CeaRules.countLineReturns(previousWhiteSpace.getNode().getChars())) {
+		case 1:
+			// After a comment, what is above the comment decides
+			return previous instanceof PsiComment ? getGap(previous) : PropertiesText.Gap.LINE;
+		case 2:
+			return previous instanceof PsiComment ? PropertiesText.Gap.OTHER : PropertiesText.Gap.BLANK_LINE;
+		default:
+			return PropertiesText.Gap.OTHER;
 		}
 	}
 
-	static boolean isCeaSorted(PropertiesFile propertiesFile) {
-		Iterable<IProperty> properties = new ArrayList<>(propertiesFile.getProperties());
+	// The raw key characters are compared directly, only keys with escapes need to be unescaped
+	@Nullable
+	private static CharSequence getKeyChars(@NotNull IProperty property, @NotNull ASTNode propertyNode) {
+		ASTNode keyNode = propertyNode.findChildByType(PropertiesTokenTypes.KEY_CHARACTERS);
+		if (keyNode == null) {
+			return null;
+		}
+		CharSequence rawKey = keyNode.getChars();
+		return CeaKey.hasEscape(rawKey) ? property.getKey() : rawKey;
+	}
 
-		String previousKey = null;
-		IProperty property;
-		String currentKey;
-		for (Iterator<IProperty> it = properties.iterator(); it.hasNext(); previousKey = currentKey) {
-			property = it.next();
-			currentKey = property.getKey();
+	static boolean isCeaSorted(PropertiesFile propertiesFile, KeyOrdering ordering) {
+		CharSequence previousKey = null;
+		Object previousSortKey = null;
+		long previousDescriptor = 0L;
+		for (IProperty property : propertiesFile.getProperties()) {
+			PsiElement psiElement = property.getPsiElement();
+			ASTNode propertyNode = psiElement.getNode();
+			CharSequence currentKey = getKeyChars(property, propertyNode);
 			if (currentKey == null) {
 				// Don't know when this can happen
 				return false;
 			}
 
-			String value = property.getValue();
-			if (value == null) {
-				return false;
-			}
-
-			if (property.getPsiElement().getText().contains(LINE_SEPARATOR)) {
+			if (propertyNode.textContains('\n')) {
 				return false;
 			}
 
+			long currentDescriptor = CeaKey.describe(currentKey);
+			Object currentSortKey = ordering.createSortKey(currentKey);
 			// The first loop does nothing because of this
 			if (previousKey != null) {
-				String previousKeyToCompare;
-				String keyToCompare;
-				// When comparing two keys with and without a point, we need to compare the key without a point with the first part of the key with a point
-				if (previousKey.contains(".") && !currentKey.contains(".")) {
-					previousKeyToCompare = getFirstKeyPart(previousKey);
-					keyToCompare = currentKey;
-					// We need to have a blank line between a property with point and a property without
-					if (!psiElementIsAfterABlankLine(property.getPsiElement())) {
-						return false;
-					}
-				} else if (!previousKey.contains(".") && currentKey.contains(".")) {
-					previousKeyToCompare = previousKey;
-					keyToCompare = getFirstKeyPart(currentKey);
-					// We need to have a blank line between a property with point and a property without
-					if (!psiElementIsAfterABlankLine(property.getPsiElement())) {
-						return false;
-					}
-				} else if (previousKey.contains(".") && currentKey.contains(".")) {
-					// If both keys have points, we compare the full key
-					previousKeyToCompare = previousKey;
-					keyToCompare = currentKey;
-					if (!getFirstKeyPart(previousKey).equals(getFirstKeyPart(currentKey))) {
-						// We need to have a blank line between 2 properties with point if the first part is not the same
-						if (!psiElementIsAfterABlankLine(property.getPsiElement())) {
-							return false;
-						}
-					} else {
-						// We need to have no blank line between 2 properties with point if the first part is the same
-						if (!psiElementIsAfterAProperty(property.getPsiElement())) {
-							return false;
-						}
-					}
-				} else {
-					// If both keys have no points, we compare the full key
-					previousKeyToCompare = previousKey;
-					keyToCompare = currentKey;
-					// We need to have a blank line between 2 properties without a point
-					if (!psiElementIsAfterABlankLine(property.getPsiElement())) {
+				if (CeaKey.isSameGroup(previousKey, previousDescriptor, currentKey, currentDescriptor)) {
+					// We need to have no blank line between 2 properties with point if the first part is the same
+					if (getGap(psiElement) != PropertiesText.Gap.LINE) {
 						return false;
 					}
+				} else if (getGap(psiElement) != PropertiesText.Gap.BLANK_LINE) {
+					// We need a blank line in every other case
+					return false;
 				}
 
 				// We just checked that we have the correct number of blank lines before our property.
 				// We now compare it with the previous one to check if they are correctly ordered
-				if (previousKeyToCompare.compareTo(keyToCompare) > 0) {
+				if (ordering.compareSortKeys(previousSortKey, currentSortKey) > 0) {
 					return false;
 				}
 			}
+			previousKey = currentKey;
+			previousSortKey = currentSortKey;
+			previousDescriptor = currentDescriptor;
 		}
 		return true;
 	}
 
-	private static final class CEAPropertiesSorterQuickFix implements LocalQuickFix {
-		private final PropertiesFile[] myFilesToSort;
-
-		private CEAPropertiesSorterQuickFix(PropertiesFile... toSort) {
-			myFilesToSort = toSort;
-		}
-
-		@NotNull
-		@Override
-		public String getFamilyName() {
-			return "Sort resource bundle files";
-		}
-
-		@Override
-		public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
-			boolean force = myFilesToSort.length == 1;
-			for (PropertiesFile file : myFilesToSort) {
-				if (!force && isCeaSorted(file)) {
-					continue;
-				}
-				try {
-					ReformatCodeProcessor reformatCodeProcessor = new ReformatCodeProcessor(file.getContainingFile(), false);
-					reformatCodeProcessor.runWithoutProgress();
-					sortPropertiesFile(file);
-				} catch (Exception e) {
-					LOG.error(e.getMessage(), e);
-				}
-			}
-		}
-
-		private static void sortPropertiesFile(PropertiesFile file) {
-			List<IProperty> properties = new ArrayList<>(file.getProperties());
-
-			properties.sort((p1, p2) -> Comparing.compare(p1.getKey(), p2.getKey()));
-			char delimiter = PropertiesCodeStyleSettings.getInstance(file.getProject()).getDelimiter();
-			StringBuilder rawText = new StringBuilder();
-			for (int i = 0; i < properties.size(); i++) {
-				IProperty property = properties.get(i);
-				String value = property.getValue();
-				String commentAboveProperty = property.getDocCommentText();
-				if (commentAboveProperty != null) {
-					rawText.append(commentAboveProperty).append(LINE_SEPARATOR);
-				}
-				String key = property.getKey();
-				String propertyText;
-				if (key != null) {
-					propertyText = PropertiesElementFactory.getPropertyText(key, (value != null) ? value : "", delimiter, null, PropertyKeyValueFormat.FILE);
-					rawText.append(propertyText);
-					if (i <= (properties.size() - 2)) {
-						String nextKey = properties.get(i + 1).getKey();
-						if (nextKey != null) {
-							// If one key has a point and not the other, we add a blank line
-							if (key.contains(".") && !nextKey.contains(".")) {
-								rawText.append(TWO_LINE_SEPARATOR);
-							} else if (!key.contains(".") && nextKey.contains(".")) {
-								rawText.append(TWO_LINE_SEPARATOR);
-							} else if (key.contains(".") && nextKey.contains(".")) {
-								// If both keys have points, we might add a blank line
-								if (!getFirstKeyPart(key).equals(getFirstKeyPart(nextKey))) {
-									rawText.append(TWO_LINE_SEPARATOR);
-								} else {
-									rawText.append(LINE_SEPARATOR);
-								}
-							} else {
-								// If both keys have no points, we add a blank line
-								rawText.append(TWO_LINE_SEPARATOR);
-							}
-						} else {
-							rawText.append(LINE_SEPARATOR);
-						}
-					}
-				}
-			}
-
-			PropertiesFile fakeFile = PropertiesElementFactory.createPropertiesFile(file.getProject(), rawText.toString());
-
-			PropertiesList propertiesList = PsiTreeUtil.findChildOfType(file.getContainingFile(), PropertiesList.class);
-			LOG.assertTrue(propertiesList != null);
-			PropertiesList fakePropertiesList = PsiTreeUtil.findChildOfType(fakeFile.getContainingFile(), PropertiesList.class);
-			LOG.assertTrue(fakePropertiesList != null);
-			propertiesList.replace(fakePropertiesList);
-		}
-	}
-
 	@Override
 	@NotNull
 	public String getDisplayName() {
@@ -301,4 +304,29 @@ public final class UnsortedPropertiesFileInspection extends LocalInspectionTool
 	public String getShortName() {
 		return "CeaUnsortedPropertiesFile";
 	}
+
+	/**
+	 * A properties text parsed in the key ordering of the project with its report, and the stamp of the document it was parsed from
+	 */
+	static final class AnalysedText {
+		private final PropertiesText propertiesText;
+		private final CeaReport report;
+		private final long documentStamp;
+
+		AnalysedText(@NotNull PropertiesText propertiesText, @NotNull CeaReport report, long documentStamp) {
+			this.propertiesText = propertiesText;
+			this.report = report;
+			this.documentStamp = documentStamp;
+		}
+
+		@NotNull
+		PropertiesText getPropertiesText() {
+			return propertiesText;
+		}
+
+		@NotNull
+		CeaReport getReport() {
+			return report;
+		}
+	}
 }
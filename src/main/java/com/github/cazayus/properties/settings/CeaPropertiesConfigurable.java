@@ -0,0 +1,84 @@
+package com.github.cazayus.properties.settings;
+
+import javax.swing.JCheckBox;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.NotNull;
+
+import com.github.cazayus.properties.engine.KeyOrdering;
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.options.Configurable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.util.ui.FormBuilder;
+import com.intellij.util.ui.UIUtil;
+
+/**
+ * Settings page of the CEA properties plugin, under Tools
+ */
+public final class CeaPropertiesConfigurable implements Configurable {
+	// The summaries of the CeaSortedIndex only have the plain ordering
+	private static final String INDEX_NOTE = "Only the plain ordering is indexed, the other orderings parse and check every file";
+
+	private final Project myProject;
+	private ComboBox<KeyOrdering> myOrderingComboBox;
+	private JCheckBox mySortExternalChangesCheckBox;
+
+	public CeaPropertiesConfigurable(@NotNull Project project) {
+		myProject = project;
+	}
+
+	@Nls
+	@Override
+	public String getDisplayName() {
+		return "CEA Properties";
+	}
+
+	@NotNull
+	@Override
+	public JComponent createComponent() {
+		myOrderingComboBox = new ComboBox<>(KeyOrdering.values());
+		mySortExternalChangesCheckBox = new JCheckBox("Sort properties files changed outside of the editor (branch switch, code generators...)");
+		return FormBuilder.createFormBuilder()
+				.addLabeledComponent("Key ordering:", myOrderingComboBox)
+				.addComponentToRightColumn(new JBLabel(INDEX_NOTE, UIUtil.ComponentStyle.SMALL, UIUtil.FontColor.BRIGHTER))
+				.addComponent(mySortExternalChangesCheckBox)
+				.addComponentFillVertically(new JPanel(), 0)
+				.getPanel();
+	}
+
+	@Override
+	public boolean isModified() {
+		CeaPropertiesSettings settings = CeaPropertiesSettings.getInstance(myProject);
+		return myOrderingComboBox.getSelectedItem() != settings.getOrdering()
+				|| mySortExternalChangesCheckBox.isSelected() != settings.isSortExternalChanges();
+	}
+
+	@Override
+	public void apply() {
+		CeaPropertiesSettings settings = CeaPropertiesSettings.getInstance(myProject);
+		settings.setSortExternalChanges(mySortExternalChangesCheckBox.isSelected());
+		KeyOrdering ordering = (KeyOrdering) myOrderingComboBox.getSelectedItem();
+		if (ordering != null && ordering != settings.getOrdering()) {
+			settings.setOrdering(ordering);
+			// Every properties file is highlighted again with the new ordering
+			DaemonCodeAnalyzer.getInstance(myProject).restart();
+		}
+	}
+
+	@Override
+	public void reset() {
+		CeaPropertiesSettings settings = CeaPropertiesSettings.getInstance(myProject);
+		myOrderingComboBox.setSelectedItem(settings.getOrdering());
+		mySortExternalChangesCheckBox.setSelected(settings.isSortExternalChanges());
+	}
+
+	@Override
+	public void disposeUIResources() {
+		myOrderingComboBox = null;
+		mySortExternalChangesCheckBox = null;
+	}
+}
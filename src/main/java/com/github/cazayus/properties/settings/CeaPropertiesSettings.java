@@ -0,0 +1,80 @@
+package com.github.cazayus.properties.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.github.cazayus.properties.engine.KeyOrdering;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.SimpleModificationTracker;
+
+/**
+ * Project settings of the CEA properties plugin, edited in {@link CeaPropertiesConfigurable} <br>
+ * The settings are a modification tracker: the results cached on the files depend on it, so changing the key ordering drops them.
+ */
+@Service
+@State(name = "CeaPropertiesSettings", storages = @Storage("ceaProperties.xml"))
+public final class CeaPropertiesSettings extends SimpleModificationTracker implements PersistentStateComponent<CeaPropertiesSettings.State> {
+	private State myState = new State();
+
+	public static CeaPropertiesSettings getInstance(@NotNull Project project) {
+		return project.getService(CeaPropertiesSettings.class);
+	}
+
+	/**
+	 * @return the order of the keys checked by the inspection and produced by every sort
+	 */
+	@NotNull
+	public KeyOrdering getOrdering() {
+		return myState.ordering != null ? myState.ordering : KeyOrdering.PLAIN;
+	}
+
+	public void setOrdering(@NotNull KeyOrdering ordering) {
+		if (ordering != getOrdering()) {
+			myState.ordering = ordering;
+			incModificationCount();
+		}
+	}
+
+	/**
+	 * @return true when the properties files of a commit are checked before it, see the check-in handler
+	 */
+	public boolean isCheckBeforeCommit() {
+		return myState.checkBeforeCommit;
+	}
+
+	public void setCheckBeforeCommit(boolean checkBeforeCommit) {
+		myState.checkBeforeCommit = checkBeforeCommit;
+	}
+
+	/**
+	 * @return true when the properties files changed outside of the editor, by a branch switch or a code generator, are sorted in the background
+	 */
+	public boolean isSortExternalChanges() {
+		return myState.sortExternalChanges;
+	}
+
+	public void setSortExternalChanges(boolean sortExternalChanges) {
+		myState.sortExternalChanges = sortExternalChanges;
+	}
+
+	@NotNull
+	@Override
+	public State getState() {
+		return myState;
+	}
+
+	@Override
+	public void loadState(@NotNull State state) {
+		myState = state;
+		incModificationCount();
+	}
+
+	public static final class State {
+		public KeyOrdering ordering = KeyOrdering.PLAIN;
+		public boolean checkBeforeCommit = true;
+		public boolean sortExternalChanges;
+	}
+}
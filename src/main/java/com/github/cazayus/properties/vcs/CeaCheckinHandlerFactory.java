@@ -0,0 +1,136 @@
+package com.github.cazayus.properties.vcs;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.github.cazayus.properties.index.CeaSortedIndex;
+import com.github.cazayus.properties.inspection.PropertiesSortTask;
+import com.github.cazayus.properties.inspection.UnsortedBundleFiles;
+import com.github.cazayus.properties.settings.CeaPropertiesSettings;
+import com.intellij.lang.properties.PropertiesFileType;
+import com.intellij.lang.properties.psi.PropertiesFile;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileTypes.FileTypeRegistry;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vcs.CheckinProjectPanel;
+import com.intellij.openapi.vcs.changes.CommitContext;
+import com.intellij.openapi.vcs.checkin.CheckinHandler;
+import com.intellij.openapi.vcs.checkin.CheckinHandlerFactory;
+import com.intellij.openapi.vcs.ui.BooleanCommitOption;
+import com.intellij.openapi.vcs.ui.RefreshableOnComponent;
+import com.intellij.openapi.vfs.VirtualFile;
+
+/**
+ * Checks the properties files of a commit before it is made and offers to sort the unsorted ones <br>
+ * Unlike the save action, this also catches the files changed by scripts, merges or other tools. Only the committed files and the other <br>
+ * locales of their resource bundles are checked, by {@link UnsortedBundleFiles}: unchanged files are answered by the {@link CeaSortedIndex} <br>
+ * or the result cached by the inspection, so a commit of a few files stays fast on a large repository.
+ */
+public final class CeaCheckinHandlerFactory extends CheckinHandlerFactory {
+	@NotNull
+	@Override
+	public CheckinHandler createHandler(@NotNull CheckinProjectPanel panel, @NotNull CommitContext commitContext) {
+		return new CeaCheckinHandler(panel);
+	}
+
+	private static final class CeaCheckinHandler extends CheckinHandler {
+		private static final String TITLE = "CEA Properties";
+		private static final int MAX_LISTED_FILES = 20;
+
+		private final CheckinProjectPanel myPanel;
+		private final Project myProject;
+
+		private CeaCheckinHandler(CheckinProjectPanel panel) {
+			myPanel = panel;
+			myProject = panel.getProject();
+		}
+
+		@Override
+		public RefreshableOnComponent getBeforeCheckinConfigurationPanel() {
+			CeaPropertiesSettings settings = CeaPropertiesSettings.getInstance(myProject);
+			return new BooleanCommitOption(myPanel, "Check CEA sorting of properties files", false, settings::isCheckBeforeCommit,
+					settings::setCheckBeforeCommit);
+		}
+
+		@Override
+		public ReturnResult beforeCheckin() {
+			if (!CeaPropertiesSettings.getInstance(myProject).isCheckBeforeCommit()) {
+				return ReturnResult.COMMIT;
+			}
+			List<VirtualFile> committedFiles = new ArrayList<>();
+			for (VirtualFile file : myPanel.getVirtualFiles()) {
+				if (file.isValid() && FileTypeRegistry.getInstance().isFileOfType(file, PropertiesFileType.INSTANCE)) {
+					committedFiles.add(file);
+				}
+			}
+			if (committedFiles.isEmpty()) {
+				return ReturnResult.COMMIT;
+			}
+			List<PropertiesFile> unsortedFiles = new ArrayList<>();
+			// The other files of a committed resource bundle are checked too, the inspection reports the bundle when one of them is unsorted
+			boolean checked = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+					() -> unsortedFiles.addAll(UnsortedBundleFiles.find(myProject, committedFiles, ProgressManager.getInstance().getProgressIndicator())),
+					"Checking CEA Properties", true, myProject);
+			if (!checked) {
+				return ReturnResult.CANCEL;
+			}
+			if (unsortedFiles.isEmpty()) {
+				return ReturnResult.COMMIT;
+			}
+			int answer = Messages.showYesNoCancelDialog(myProject, getMessage(unsortedFiles), TITLE, "Sort", "Commit Anyway", Messages.getCancelButton(),
+					Messages.getWarningIcon());
+			if (answer == Messages.CANCEL) {
+				return ReturnResult.CANCEL;
+			}
+			if (answer == Messages.YES) {
+				if (!new PropertiesSortTask(myProject, "Sort CEA properties before commit", unsortedFiles).runModal()) {
+					return ReturnResult.CANCEL;
+				}
+				saveDocuments(unsortedFiles);
+			}
+			return ReturnResult.COMMIT;
+		}
+
+		private String getMessage(List<PropertiesFile> unsortedFiles) {
+			Set<VirtualFile> committedFiles = new LinkedHashSet<>(myPanel.getVirtualFiles());
+			StringBuilder message = new StringBuilder().append(unsortedFiles.size())
+					.append(" properties files of this commit or of its resource bundles are not CEA sorted:\n");
+			int outsideCommitCount = 0;
+			for (int i = 0; i < unsortedFiles.size(); i++) {
+				VirtualFile file = unsortedFiles.get(i).getVirtualFile();
+				boolean committed = committedFiles.contains(file);
+				if (!committed) {
+					outsideCommitCount++;
+				}
+				if (i < MAX_LISTED_FILES) {
+					message.append('\n').append(file.getPresentableUrl()).append(committed ? "" : " (not in this commit)");
+				}
+			}
+			if (unsortedFiles.size() > MAX_LISTED_FILES) {
+				message.append("\n... and ").append(unsortedFiles.size() - MAX_LISTED_FILES).append(" more");
+			}
+			if (outsideCommitCount > 0) {
+				message.append("\n\nSorting also modifies the ").append(outsideCommitCount).append(" files that are not in this commit.");
+			}
+			return message.toString();
+		}
+
+		// The commit reads the files from the disk
+		private static void saveDocuments(List<PropertiesFile> sortedFiles) {
+			FileDocumentManager fileDocumentManager = FileDocumentManager.getInstance();
+			for (PropertiesFile file : sortedFiles) {
+				Document document = file.getVirtualFile().isValid() ? fileDocumentManager.getDocument(file.getVirtualFile()) : null;
+				if (document != null) {
+					fileDocumentManager.saveDocument(document);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package com.github.cazayus.properties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.github.cazayus.properties.engine.CeaRules;
+import com.github.cazayus.properties.engine.PropertiesText;
+import com.github.cazayus.properties.filelistener.SaveProcessingQueue;
+import com.github.cazayus.properties.inspection.PropertiesSortTask;
+import com.github.cazayus.properties.inspection.UnsortedPropertiesFileInspection;
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.lang.properties.PropertiesImplUtil;
+import com.intellij.lang.properties.psi.PropertiesFile;
+import com.intellij.openapi.application.impl.NonBlockingReadActionImpl;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+/**
+ * Time budgets of the plugin paths as the IDE runs them, on a generated resource bundle of {@value #GROUP_COUNT} groups <br>
+ * of {@value #KEYS_PER_GROUP} keys per locale. The budgets are scaled to the speed of the machine by the test framework.
+ */
+public final class CeaPropertiesPerformanceTest extends BasePlatformTestCase {
+	private static final int GROUP_COUNT = 1000;
+	private static final int KEYS_PER_GROUP = 20;
+	private static final String[] LOCALES = { "", "_fr", "_de" };
+
+	public void testHighlighting() {
+		List<PsiFile> files = addBundle(LOCALES);
+		for (PsiFile file : files) {
+			setText(file, createText(file, true));
+		}
+		myFixture.enableInspections(new UnsortedPropertiesFileInspection());
+		myFixture.configureFromExistingVirtualFile(files.get(0).getVirtualFile());
+		PlatformTestUtil.startPerformanceTest("CEA inspection highlighting", 2000, () -> assertNoCeaProblem(myFixture.doHighlighting()))
+				.setup(() -> touch(files.get(0)))
+				.assertTiming();
+	}
+
+	public void testBundleSort() {
+		List<PsiFile> files = addBundle(LOCALES);
+		List<PropertiesFile> propertiesFiles = new ArrayList<>();
+		for (PsiFile file : files) {
+			propertiesFiles.add(PropertiesImplUtil.getPropertiesFile(file));
+		}
+		PlatformTestUtil.startPerformanceTest("CEA bundle sort", 10000,
+				() -> new PropertiesSortTask(getProject(), "Sort resource bundle files", propertiesFiles).run(new EmptyProgressIndicator()))
+				.setup(() -> {
+					for (PsiFile file : files) {
+						setText(file, createText(file, false));
+					}
+				})
+				.assertTiming();
+		for (PsiFile file : files) {
+			assertCeaSorted(file);
+		}
+	}
+
+	public void testReformat() {
+		PsiFile file = addBundle("").get(0);
+		String sortedText = createText(file, true);
+		PlatformTestUtil.startPerformanceTest("CEA reformat", 3000,
+				() -> WriteCommandAction.runWriteCommandAction(getProject(), () -> CodeStyleManager.getInstance(getProject()).reformat(file)))
+				.setup(() -> setText(file, sortedText.replace("=", "  =   ")))
+				.assertTiming();
+		assertEquals(sortedText, file.getText());
+	}
+
+	public void testSave() {
+		PsiFile file = addBundle("").get(0);
+		Document document = PsiDocumentManager.getInstance(getProject()).getDocument(file);
+		assertNotNull(document);
+		PlatformTestUtil.startPerformanceTest("CEA save action", 5000, () -> {
+			FileDocumentManager.getInstance().saveDocument(document);
+			SaveProcessingQueue.getInstance(getProject()).flushNow();
+			NonBlockingReadActionImpl.waitForAsyncTaskCompletion();
+			PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue();
+		}).setup(() -> setText(file, createText(file, false))).assertTiming();
+		assertCeaSorted(file);
+	}
+
+	private List<PsiFile> addBundle(String... locales) {
+		List<PsiFile> files = new ArrayList<>();
+		for (String locale : locales) {
+			files.add(myFixture.addFileToProject("messages" + locale + ".properties", ""));
+		}
+		return files;
+	}
+
+	// Keys and groups have fixed widths, so the sorted text is also the formatted one
+	private static String createText(PsiFile file, boolean sorted) {
+		List<String> groups = new ArrayList<>();
+		for (int group = 0; group < GROUP_COUNT; group++) {
+			StringBuilder lines = new StringBuilder();
+			for (int key = 0; key < KEYS_PER_GROUP; key++) {
+				if (key > 0) {
+					lines.append(CeaRules.LINE_SEPARATOR);
+				}
+				lines.append(String.format("group%04d.key%03d=%s value %d", group, key, file.getName(), key));
+			}
+			groups.add(lines.toString());
+		}
+		if (!sorted) {
+			Collections.shuffle(groups, new Random(file.getName().hashCode()));
+		}
+		return String.join(CeaRules.TWO_LINE_SEPARATOR, groups);
+	}
+
+	private void setText(PsiFile file, String text) {
+		Document document = PsiDocumentManager.getInstance(getProject()).getDocument(file);
+		assertNotNull(document);
+		WriteCommandAction.runWriteCommandAction(getProject(), () -> document.setText(text));
+		PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+	}
+
+	// Changes the file back and forth so the cached checks are computed again
+	private void touch(PsiFile file) {
+		Document document = PsiDocumentManager.getInstance(getProject()).getDocument(file);
+		assertNotNull(document);
+		WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+			document.insertString(0, "#");
+			document.deleteString(0, 1);
+		});
+		PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+	}
+
+	private static void assertNoCeaProblem(List<HighlightInfo> highlightInfos) {
+		for (HighlightInfo highlightInfo : highlightInfos) {
+			String description = highlightInfo.getDescription();
+			assertFalse(description, description != null && description.contains("CEA"));
+		}
+	}
+
+	private static void assertCeaSorted(PsiFile file) {
+		assertTrue(file.getName(), CeaRules.isCeaSorted(PropertiesText.parse(file.getText())));
+	}
+}
@@ -0,0 +1,93 @@
+package com.github.cazayus.properties.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * The counting sort of a locale on the ranks of the bundle must give the sort of the locale on its own
+ */
+public final class BundleKeyRanksTest extends TestCase {
+	private static final String[] SEGMENTS = { "a", "b", "A", "a1", "a01", "a10", "\\u00e9", "e", "x-y", "Z" };
+
+	public void testSameAsEachLocale() {
+		Random random = new Random(42L);
+		for (int i = 0; i < 1000; i++) {
+			KeyOrdering ordering = KeyOrdering.values()[i % KeyOrdering.values().length];
+			List<PropertiesText> locales = new ArrayList<>();
+			Set<String> keys = new HashSet<>();
+			for (int locale = random.nextInt(5); locale >= 0; locale--) {
+				PropertiesText propertiesText = PropertiesText.parse(createText(random), ordering);
+				for (int index = 0; index < propertiesText.size(); index++) {
+					if (propertiesText.getKey(index) != null) {
+						keys.add(propertiesText.getKey(index));
+					}
+				}
+				locales.add(propertiesText);
+			}
+			BundleKeyRanks keyRanks = BundleKeyRanks.build(locales);
+			assertEquals(keys.size(), keyRanks.size());
+			for (int locale = 0; locale < locales.size(); locale++) {
+				PropertiesText propertiesText = locales.get(locale);
+				assertTrue(propertiesText.getText().toString(), Arrays.equals(propertiesText.sortedIndexes(), keyRanks.sortedIndexes(locale)));
+				assertTrue(propertiesText.getText().toString(), Arrays.equals(propertiesText.bucketSortedIndexes(), keyRanks.sortedIndexes(locale)));
+			}
+		}
+	}
+
+	// Enough keys for the parallel sort of the buckets
+	public void testLargeBundle() {
+		Random random = new Random(42L);
+		List<String> keys = new ArrayList<>();
+		for (int i = 0; i < 30000; i++) {
+			keys.add(SEGMENTS[random.nextInt(SEGMENTS.length)] + i % 50 + '.' + SEGMENTS[random.nextInt(SEGMENTS.length)] + i);
+		}
+		for (KeyOrdering ordering : KeyOrdering.values()) {
+			List<PropertiesText> locales = new ArrayList<>();
+			for (int locale = 0; locale < 3; locale++) {
+				Collections.shuffle(keys, random);
+				StringBuilder text = new StringBuilder();
+				for (String key : keys.subList(0, 20000)) {
+					text.append(key).append("=value\n");
+				}
+				locales.add(PropertiesText.parse(text, ordering));
+			}
+			BundleKeyRanks keyRanks = BundleKeyRanks.build(locales);
+			for (int locale = 0; locale < locales.size(); locale++) {
+				assertTrue(ordering.name(), Arrays.equals(locales.get(locale).sortedIndexes(), keyRanks.sortedIndexes(locale)));
+			}
+		}
+	}
+
+	public void testDifferentOrderings() {
+		List<PropertiesText> locales = Arrays.asList(PropertiesText.parse("a=1\n", KeyOrdering.PLAIN), PropertiesText.parse("a=1\n", KeyOrdering.NATURAL));
+		try {
+			BundleKeyRanks.build(locales);
+			fail("Locales in different key orderings");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+
+	private static String createText(Random random) {
+		StringBuilder text = new StringBuilder();
+		for (int i = random.nextInt(30); i > 0; i--) {
+			if (random.nextInt(10) == 0) {
+				text.append("=value\n");
+				continue;
+			}
+			text.append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+			for (int depth = random.nextInt(3); depth > 0; depth--) {
+				text.append('.').append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+			}
+			text.append("=value\n");
+		}
+		return text.toString();
+	}
+}
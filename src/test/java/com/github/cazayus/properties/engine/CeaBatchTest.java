@@ -0,0 +1,68 @@
+package com.github.cazayus.properties.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import junit.framework.TestCase;
+
+/**
+ * A fix run must leave only sorted files behind, or fail
+ */
+public final class CeaBatchTest extends TestCase {
+	private Path directory;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("cea-batch");
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	public void testFixThenCheck() throws IOException {
+		Path file = write("b=2\na=1\n");
+		assertEquals(0, run("--fix", file.toString()));
+		assertEquals("a=1\n\nb=2\n", read(file));
+		assertEquals(0, run(file.toString()));
+	}
+
+	public void testFixMultiLineProperty() throws IOException {
+		String text = "b=2\na.b=1\\\n  2\n";
+		Path file = write(text);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		assertEquals(2, CeaBatch.run(new String[] { "--fix", file.toString() }, print(output), print(new ByteArrayOutputStream())));
+		assertTrue(output.toString(), output.toString().contains("Error " + file + ": cannot be sorted (multi-line property)"));
+		assertEquals(text, read(file));
+		assertEquals(1, run(file.toString()));
+	}
+
+	private Path write(String text) throws IOException {
+		Path file = directory.resolve("messages.properties");
+		Files.write(file, text.getBytes(StandardCharsets.ISO_8859_1));
+		return file;
+	}
+
+	private static String read(Path file) throws IOException {
+		return new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+	}
+
+	private static int run(String... args) {
+		return CeaBatch.run(args, print(new ByteArrayOutputStream()), print(new ByteArrayOutputStream()));
+	}
+
+	private static PrintStream print(ByteArrayOutputStream output) {
+		return new PrintStream(output, true);
+	}
+}
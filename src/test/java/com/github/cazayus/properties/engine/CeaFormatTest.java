@@ -0,0 +1,40 @@
+package com.github.cazayus.properties.engine;
+
+import junit.framework.TestCase;
+
+/**
+ * Properties written by {@link CeaFormat}, through the batch sort and the quick fix edits which must give the same text
+ */
+public final class CeaFormatTest extends TestCase {
+	public void testDefault() {
+		assertEquals("a.long=1\na.x=2\n\nb=\n", sort("a.x = 2\na.long:1\nb=\n", CeaFormat.DEFAULT));
+	}
+
+	public void testSpacesAroundDelimiter() {
+		assertEquals("a.long : 1\na.x : 2\n\nb :\n", sort("a.x=2\na.long=1\nb=\n", new CeaFormat(':', true, false)));
+	}
+
+	public void testAlignGroupDelimiters() {
+		String text = "b.long=1\na.x=2\nb.s=3\nc=4\na.yy=5\n";
+		assertEquals("a.x  = 2\na.yy = 5\n\nb.long = 1\nb.s    = 3\n\nc = 4\n", sort(text, new CeaFormat('=', true, true)));
+		assertEquals("a.x =2\na.yy=5\n\nb.long=1\nb.s   =3\n\nc=4\n", sort(text, new CeaFormat('=', false, true)));
+	}
+
+	// The keys are aligned on their escaped length, as written in the file
+	public void testAlignEscapedKeys() {
+		assertEquals("a.xyzzy =2\na.\\u00e9=1\n", sort("a.\\u00e9=1\na.xyzzy=2\n", new CeaFormat('=', false, true)));
+	}
+
+	public void testSortedFileInFormatHasNoEdit() {
+		String text = "a.x  = 2\na.yy = 5\n\nc = 4\n";
+		PropertiesText propertiesText = PropertiesText.parse(text);
+		assertTrue(SortEdits.compute(propertiesText, CeaReport.analyse(propertiesText), new CeaFormat('=', true, true)).isEmpty());
+	}
+
+	private static String sort(String text, CeaFormat format) {
+		PropertiesText propertiesText = PropertiesText.parse(text);
+		String sorted = CeaRules.sort(propertiesText, format);
+		assertEquals(sorted, SortEdits.apply(text, SortEdits.compute(propertiesText, CeaReport.analyse(propertiesText), format)));
+		return sorted;
+	}
+}
@@ -0,0 +1,90 @@
+package com.github.cazayus.properties.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+/**
+ * Every ordering keeps the keys of a group together, whatever else it compares differently
+ */
+public final class KeyOrderingTest extends TestCase {
+	private static final String[] SEGMENTS = { "a", "b", "A", "a1", "a01", "a2", "a10", "\u00e9", "e", "f", "x-y", "Z", "\u00e4", "z" };
+
+	public void testNatural() {
+		assertSorted(KeyOrdering.NATURAL, "error.2", "error.10", "error.a");
+		assertSorted(KeyOrdering.NATURAL, "a1", "a01", "a2", "a10");
+		assertSorted(KeyOrdering.NATURAL, "x.1.b", "x.01.a", "x.2");
+		assertSorted(KeyOrdering.PLAIN, "error.10", "error.2");
+	}
+
+	public void testCollator() {
+		assertSorted(KeyOrdering.COLLATOR, "a", "B", "c");
+		assertSorted(KeyOrdering.COLLATOR, "label.e", "label.\u00e9", "label.f");
+		assertSorted(KeyOrdering.PLAIN, "label.e", "label.f", "label.\u00e9");
+	}
+
+	// Swedish sorts a-umlaut after z, the root locale next to a
+	public void testCollatorIgnoresDefaultLocale() throws Exception {
+		Locale defaultLocale = Locale.getDefault();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Locale.setDefault(new Locale("sv", "SE"));
+			int comparison = executor.submit(() -> KeyOrdering.COLLATOR.compare("\u00e4", "z")).get();
+			assertTrue(comparison < 0);
+		} finally {
+			Locale.setDefault(defaultLocale);
+			executor.shutdown();
+		}
+	}
+
+	public void testKeyWithoutPointBeforeItsGroup() {
+		for (KeyOrdering ordering : KeyOrdering.values()) {
+			assertSorted(ordering, "a", "a.b", "a.c", "b");
+		}
+	}
+
+	public void testGroupsStayTogether() {
+		Random random = new Random(42L);
+		for (KeyOrdering ordering : KeyOrdering.values()) {
+			for (int i = 0; i < 200; i++) {
+				List<String> keys = new ArrayList<>();
+				for (int j = random.nextInt(40); j >= 0; j--) {
+					StringBuilder key = new StringBuilder(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+					for (int depth = random.nextInt(3); depth > 0; depth--) {
+						key.append('.').append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+					}
+					keys.add(key.toString());
+				}
+				keys.sort(ordering.comparator());
+				Set<String> closedGroups = new HashSet<>();
+				String group = null;
+				for (String key : keys) {
+					int point = key.indexOf('.');
+					String keyGroup = point < 0 ? null : key.substring(0, point);
+					if (group != null && !group.equals(keyGroup)) {
+						closedGroups.add(group);
+					}
+					assertFalse(ordering + " " + keys, keyGroup != null && closedGroups.contains(keyGroup));
+					group = keyGroup;
+				}
+			}
+		}
+	}
+
+	private static void assertSorted(KeyOrdering ordering, String... keys) {
+		List<String> sorted = new ArrayList<>(Arrays.asList(keys));
+		sorted.sort(ordering.comparator());
+		assertEquals(ordering.name(), Arrays.asList(keys), sorted);
+		for (int i = 1; i < keys.length; i++) {
+			assertTrue(keys[i - 1] + " " + keys[i], ordering.compare(keys[i - 1], keys[i]) < 0);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.github.cazayus.properties.engine;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * The edits of the IDE quick fix must give the text of the batch command line, {@link CeaRules#sort(PropertiesText, CeaFormat)}
+ */
+public final class SortEditsTest extends TestCase {
+	private static final CeaFormat[] FORMATS = { CeaFormat.DEFAULT, new CeaFormat(':', true, false), new CeaFormat('=', true, true) };
+	private static final String[] DELIMITERS = { "=", ":", " ", " = ", "\t:  " };
+
+	public void testPropertyWithoutKeyIsDropped() {
+		String text = "b=1\n# doc\n=value\na.x=2\n:3\n";
+		for (CeaFormat format : FORMATS) {
+			assertSameAsBatch(text, format);
+		}
+		PropertiesText propertiesText = PropertiesText.parse(text);
+		assertEquals("# doc\na.x=2\n\nb=1\n", SortEdits.apply(text, SortEdits.compute(propertiesText, CeaReport.analyse(propertiesText), CeaFormat.DEFAULT)));
+	}
+
+	// Only the lines between the properties are fixed, the property continuing on several lines is kept as it is
+	public void testMultiLinePropertyIsNotSortable() {
+		String text = "a.x=1\\\n  2\n\na.y=3\nb=4\n";
+		PropertiesText propertiesText = PropertiesText.parse(text);
+		CeaReport report = CeaReport.analyse(propertiesText);
+		assertFalse(report.isSortable());
+		assertFalse(report.isOrderBroken());
+		assertEquals("a.x=1\\\n  2\na.y=3\n\nb=4\n", SortEdits.apply(text, SortEdits.compute(propertiesText, report)));
+		assertTrue(CeaReport.analyse(PropertiesText.parse("a=1\nb=2\n")).isSortable());
+	}
+
+	public void testSameAsBatch() {
+		Random random = new Random(42L);
+		for (int i = 0; i < 2000; i++) {
+			String text = createText(random);
+			for (CeaFormat format : FORMATS) {
+				assertSameAsBatch(text, format);
+			}
+		}
+	}
+
+	private static void assertSameAsBatch(String text, CeaFormat format) {
+		for (KeyOrdering ordering : KeyOrdering.values()) {
+			PropertiesText propertiesText = PropertiesText.parse(text, ordering);
+			CeaReport report = CeaReport.analyse(propertiesText);
+			String sorted = SortEdits.apply(text, SortEdits.compute(propertiesText, report, format));
+			if (report.isEmpty()) {
+				assertEquals(text, sorted);
+			} else {
+				assertEquals(text, CeaRules.sort(propertiesText, format), sorted);
+				assertTrue(sorted, CeaReport.analyse(PropertiesText.parse(sorted, ordering)).isEmpty());
+			}
+		}
+	}
+
+	private static String createText(Random random) {
+		StringBuilder text = new StringBuilder();
+		if (random.nextBoolean()) {
+			text.append("# header\n\n");
+		}
+		for (int i = random.nextInt(30); i >= 0; i--) {
+			if (random.nextInt(8) == 0) {
+				text.append("# doc ").append(i).append('\n');
+			}
+			if (random.nextInt(10) == 0) {
+				text.append('=').append(i).append('\n');
+			}
+			text.append((char) ('a' + random.nextInt(3)));
+			if (random.nextBoolean()) {
+				text.append('.').append("xyz", 0, 1 + random.nextInt(3)).append(random.nextInt(12));
+			} else {
+				text.append(random.nextInt(3));
+			}
+			text.append(DELIMITERS[random.nextInt(DELIMITERS.length)]);
+			if (random.nextInt(5) > 0) {
+				text.append('v').append(i);
+			}
+			text.append(random.nextInt(4) == 0 ? "\n\n" : "\n");
+		}
+		return text.toString();
+	}
+}